@@ -1,9 +1,11 @@
 package com.github.dcysteine.neicustomdiagram.api.diagram;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.CustomInteractable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.DiagramMatcher;
@@ -62,11 +64,12 @@ public class CustomDiagramGroup extends DiagramGroup {
     }
 
     @Override
-    protected Collection<Diagram> matchDiagrams(String id, Interactable.RecipeType recipeType, Object... stacks) {
+    protected Collection<Diagram> matchDiagrams(String id, Interactable.RecipeType recipeType,
+            List<Component> components, Object... stacks) {
         if (customBehaviorMap.containsKey(id)) {
             return customBehaviorMap.get(id).get();
         }
 
-        return super.matchDiagrams(id, recipeType, stacks);
+        return super.matchDiagrams(id, recipeType, components, stacks);
     }
 }
@@ -63,6 +63,15 @@ public class Diagram {
         return slotInsertions;
     }
 
+    public Layout layout() {
+        return layout;
+    }
+
+    /** Returns the interactables of this diagram, not including the layout's slots. */
+    public ImmutableList<? extends Interactable> interactables() {
+        return interactables;
+    }
+
     public Iterable<Interactable> interactables(DiagramState diagramState) {
         // Slots go at the end so that they get last priority.
         return Iterables.concat(interactables, layout.allSlots());
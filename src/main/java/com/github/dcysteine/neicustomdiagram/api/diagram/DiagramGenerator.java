@@ -5,4 +5,23 @@ public interface DiagramGenerator {
     DiagramGroupInfo info();
 
     DiagramGroup generate();
+
+    /**
+     * Returns whether {@link #generate()} may be called on a worker thread, concurrently with other diagram generators.
+     *
+     * <p>
+     * Only return {@code true} if generation just reads game data (recipe maps, ore dictionary, etc.) and does not
+     * touch any client state such as rendering. Generators which return {@code false} will always be run on the client
+     * thread.
+     *
+     * <p>
+     * Client state includes the font renderer, so thread-safe generators must not measure text themselves, for example
+     * with {@code GuiDraw.getStringWidth()}. Building a
+     * {@link com.github.dcysteine.neicustomdiagram.api.diagram.layout.Text} is fine, as it is only measured when first
+     * drawn. Generators must also not call into other mods' code that may depend on client state, or that is not safe
+     * to call concurrently.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
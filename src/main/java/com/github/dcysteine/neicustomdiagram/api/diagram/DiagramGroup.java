@@ -1,10 +1,10 @@
 package com.github.dcysteine.neicustomdiagram.api.diagram;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import javax.annotation.OverridingMethodsMustInvokeSuper;
 
@@ -27,8 +27,12 @@ import com.github.dcysteine.neicustomdiagram.api.draw.Point;
 import com.github.dcysteine.neicustomdiagram.api.draw.scroll.MouseButton;
 import com.github.dcysteine.neicustomdiagram.api.draw.scroll.ScrollDirection;
 import com.github.dcysteine.neicustomdiagram.api.draw.scroll.ScrollManager;
+import com.github.dcysteine.neicustomdiagram.main.PresenceIndex;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 import codechicken.nei.NEIClientConfig;
 import codechicken.nei.NEIClientUtils;
@@ -50,6 +54,15 @@ public class DiagramGroup implements ICraftingHandler, IUsageHandler {
     protected final DiagramState diagramState;
     protected final ImmutableList<Diagram> diagrams;
 
+    /**
+     * Results of {@link DiagramGroupInfo#emptyDiagramPredicate()} for all diagrams in {@link DiagramMatcher#all()},
+     * computed once when this diagram group is generated. Diagrams are compared by identity.
+     */
+    protected final ImmutableMap<Diagram, Boolean> emptyDiagramFlags;
+
+    /** Lazily created; use {@link #emptyInstance()} instead of accessing this directly. */
+    private volatile DiagramGroup emptyInstance;
+
     public DiagramGroup(DiagramGroupInfo info, DiagramMatcher matcher, Supplier<DiagramState> diagramStateSupplier) {
         this.info = info;
         this.matcher = matcher;
@@ -58,6 +71,12 @@ public class DiagramGroup implements ICraftingHandler, IUsageHandler {
         this.scrollManager = new ScrollManager();
         this.diagramState = diagramStateSupplier.get();
         this.diagrams = ImmutableList.of();
+
+        ImmutableMap.Builder<Diagram, Boolean> emptyDiagramFlagsBuilder = ImmutableMap.builder();
+        for (Diagram diagram : ImmutableSet.copyOf(matcher.all())) {
+            emptyDiagramFlagsBuilder.put(diagram, info.emptyDiagramPredicate().test(diagram));
+        }
+        this.emptyDiagramFlags = emptyDiagramFlagsBuilder.build();
     }
 
     public DiagramGroup(DiagramGroupInfo info, DiagramMatcher matcher) {
@@ -72,12 +91,17 @@ public class DiagramGroup implements ICraftingHandler, IUsageHandler {
         this.scrollManager = new ScrollManager();
         this.diagramState = this.diagramStateSupplier.get();
         this.diagrams = ImmutableList.copyOf(diagrams);
+        this.emptyDiagramFlags = parent.emptyDiagramFlags;
     }
 
     public DiagramGroupInfo info() {
         return info;
     }
 
+    public DiagramMatcher matcher() {
+        return matcher;
+    }
+
     /** Subclasses will need to override this to use their own constructor. */
     public DiagramGroup newInstance(Iterable<? extends Diagram> diagrams) {
         return new DiagramGroup(this, diagrams);
@@ -104,14 +128,44 @@ public class DiagramGroup implements ICraftingHandler, IUsageHandler {
     }
 
     public DiagramGroup loadDiagrams(String id, Interactable.RecipeType recipeType, Object... stacks) {
-        Collection<Diagram> matchingDiagrams = matchDiagrams(id, recipeType, stacks);
+        List<Component> components = buildComponents(id, stacks);
+        if (!components.isEmpty() && !PresenceIndex.INSTANCE.mayMatch(info.groupId(), recipeType, components)) {
+            return emptyInstance();
+        }
+
+        Collection<Diagram> matchingDiagrams = matchDiagrams(id, recipeType, components, stacks);
+        if (!matchingDiagrams.isEmpty() && !ConfigOptions.SHOW_EMPTY_DIAGRAMS.get()) {
+            matchingDiagrams = filterEmptyDiagrams(matchingDiagrams);
+        }
+
+        return matchingDiagrams.isEmpty() ? emptyInstance() : newInstance(matchingDiagrams);
+    }
+
+    /** Returns {@code diagrams} itself, without copying, if none of them are empty. */
+    private Collection<Diagram> filterEmptyDiagrams(Collection<Diagram> diagrams) {
+        List<Diagram> nonEmptyDiagrams = null;
+        int index = 0;
+        for (Diagram diagram : diagrams) {
+            if (isEmptyDiagram(diagram)) {
+                if (nonEmptyDiagrams == null) {
+                    nonEmptyDiagrams = new ArrayList<>(Iterables.limit(diagrams, index));
+                }
+            } else if (nonEmptyDiagrams != null) {
+                nonEmptyDiagrams.add(diagram);
+            }
+            index++;
+        }
+        return nonEmptyDiagrams == null ? diagrams : nonEmptyDiagrams;
+    }
 
-        if (!ConfigOptions.SHOW_EMPTY_DIAGRAMS.get()) {
-            matchingDiagrams = matchingDiagrams.stream().filter(diagram -> !info.emptyDiagramPredicate().test(diagram))
-                    .collect(Collectors.toList());
+    private boolean isEmptyDiagram(Diagram diagram) {
+        Boolean emptyDiagramFlag = emptyDiagramFlags.get(diagram);
+        if (emptyDiagramFlag != null) {
+            return emptyDiagramFlag;
         }
 
-        return newInstance(matchingDiagrams);
+        // This diagram was generated dynamically, so we couldn't check it ahead of time.
+        return info.emptyDiagramPredicate().test(diagram);
     }
 
     /**
@@ -120,8 +174,13 @@ public class DiagramGroup implements ICraftingHandler, IUsageHandler {
      * <p>
      * Subclasses should generally override / extend this method, leaving the general logic in
      * {@link #loadDiagrams(String, Interactable.RecipeType, Object...)} un-overridden.
+     *
+     * <p>
+     * {@code components} is the result of {@link #buildComponents(String, Object...)} for {@code id} and
+     * {@code stacks}, which is built only once per lookup.
      */
-    protected Collection<Diagram> matchDiagrams(String id, Interactable.RecipeType recipeType, Object... stacks) {
+    protected Collection<Diagram> matchDiagrams(String id, Interactable.RecipeType recipeType,
+            List<Component> components, Object... stacks) {
         if (id.equals(info.groupId())) {
             return matcher.all();
         }
@@ -130,24 +189,46 @@ public class DiagramGroup implements ICraftingHandler, IUsageHandler {
             return ImmutableList.of();
         }
 
+        return components.isEmpty() ? ImmutableList.of() : matcher.match(recipeType, components);
+    }
+
+    /**
+     * Returns the components to look up for an NEI lookup, or an empty list if {@code id} is not an item or fluid
+     * lookup. NEI usually passes a single stack, but may pass several; in that case, we match any of them.
+     */
+    protected List<Component> buildComponents(String id, Object... stacks) {
+        List<Component> components = new ArrayList<>(stacks.length);
         switch (id) {
             case "item":
-                ItemStack itemStack = (ItemStack) stacks[0];
-                ItemComponent itemComponent = info.ignoreNbt() ? ItemComponent.create(itemStack)
-                        : ItemComponent.createWithNbt(itemStack);
-
-                return matcher.match(recipeType, itemComponent);
+                for (Object stack : stacks) {
+                    ItemStack itemStack = (ItemStack) stack;
+                    components.add(
+                            info.ignoreNbt() ? ItemComponent.create(itemStack)
+                                    : ItemComponent.createWithNbt(itemStack));
+                }
+                break;
 
             case "liquid":
             case "fluid":
-                FluidStack fluidStack = (FluidStack) stacks[0];
-                FluidComponent fluidComponent = info.ignoreNbt() ? FluidComponent.create(fluidStack)
-                        : FluidComponent.createWithNbt(fluidStack);
-
-                return matcher.match(recipeType, fluidComponent);
+                for (Object stack : stacks) {
+                    FluidStack fluidStack = (FluidStack) stack;
+                    components.add(
+                            info.ignoreNbt() ? FluidComponent.create(fluidStack)
+                                    : FluidComponent.createWithNbt(fluidStack));
+                }
+                break;
         }
+        return components;
+    }
 
-        return ImmutableList.of();
+    /** Returns a shared instance with no diagrams, for lookups that cannot match anything. */
+    protected DiagramGroup emptyInstance() {
+        DiagramGroup instance = emptyInstance;
+        if (instance == null) {
+            instance = newInstance(ImmutableList.of());
+            emptyInstance = instance;
+        }
+        return instance;
     }
 
     @Override
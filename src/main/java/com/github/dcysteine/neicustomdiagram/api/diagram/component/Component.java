@@ -31,10 +31,20 @@ public interface Component extends Comparable<Component> {
 
     Optional<ImmutableNbtWrapper> nbtWrapper();
 
+    /** Returns a copy of this component's NBT, which is safe to modify. */
     default Optional<NBTTagCompound> nbt() {
         return nbtWrapper().map(ImmutableNbtWrapper::get);
     }
 
+    /**
+     * Returns this component's NBT without copying it. The returned NBT <em>must not</em> be modified!
+     *
+     * @see ImmutableNbtWrapper#getReadOnly()
+     */
+    default Optional<NBTTagCompound> nbtReadOnly() {
+        return nbtWrapper().map(ImmutableNbtWrapper::getReadOnly);
+    }
+
     Component withNbt(NBTTagCompound nbt);
 
     Component withoutNbt();
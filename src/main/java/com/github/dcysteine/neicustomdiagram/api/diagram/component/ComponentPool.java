@@ -0,0 +1,33 @@
+package com.github.dcysteine.neicustomdiagram.api.diagram.component;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Canonicalizing pool for components, used by the component factory methods so that equal components share a single
+ * instance.
+ *
+ * <p>
+ * Diagram generation creates the same components over and over again, so this cuts down on retained heap, and lets
+ * {@code equals()} short-circuit on reference equality. The pool only holds weak references, so components that are no
+ * longer used can still be garbage-collected.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+final class ComponentPool {
+
+    private static final Interner<ItemComponent> ITEM_COMPONENTS = Interners.newWeakInterner();
+    private static final Interner<FluidComponent> FLUID_COMPONENTS = Interners.newWeakInterner();
+
+    // Static class.
+    private ComponentPool() {}
+
+    static ItemComponent intern(ItemComponent itemComponent) {
+        return ITEM_COMPONENTS.intern(itemComponent);
+    }
+
+    static FluidComponent intern(FluidComponent fluidComponent) {
+        return FLUID_COMPONENTS.intern(fluidComponent);
+    }
+}
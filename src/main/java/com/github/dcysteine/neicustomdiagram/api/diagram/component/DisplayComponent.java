@@ -17,6 +17,7 @@ import com.github.dcysteine.neicustomdiagram.api.draw.Point;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.auto.value.extension.toprettystring.ToPrettyString;
 import com.google.common.base.Splitter;
 
@@ -60,6 +61,15 @@ public abstract class DisplayComponent implements Comparable<DisplayComponent> {
         return component().stack(stackSize());
     }
 
+    /**
+     * Returns a cached {@link ItemStack} or {@link FluidStack}, depending on the component type, for use in rendering
+     * and tooltips. The returned stack is shared, and so <em>must not</em> be modified!
+     */
+    @Memoized
+    public Object renderStack() {
+        return component().stack(stackSize());
+    }
+
     /** Returns a localized description of the item or fluid component, for printing as text. */
     public String description() {
         return component().description();
@@ -72,8 +82,8 @@ public abstract class DisplayComponent implements Comparable<DisplayComponent> {
                 stackSize -> builder.setFormatting(TextFormatting.create(true))
                         .addTextLine(Lang.API.transf("stacksize", stackSize)));
 
-        if (component().nbt().isPresent()) {
-            NBTTagCompound nbt = component().nbt().get();
+        if (component().nbtWrapper().isPresent()) {
+            NBTTagCompound nbt = component().nbtReadOnly().get();
             if (NEIClientUtils.shiftKey()) {
                 builder.addSpacing().setFormatting(Tooltip.TRIVIAL_FORMATTING)
                         .addAllTextLines(NBT_SPLITTER.split(nbt.toString()));
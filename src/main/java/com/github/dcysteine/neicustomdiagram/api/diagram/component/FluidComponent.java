@@ -14,6 +14,7 @@ import com.github.dcysteine.neicustomdiagram.api.draw.Draw;
 import com.github.dcysteine.neicustomdiagram.api.draw.Point;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 
 import codechicken.nei.recipe.GuiCraftingRecipe;
 import codechicken.nei.recipe.GuiUsageRecipe;
@@ -28,7 +29,7 @@ public abstract class FluidComponent implements Component {
     public static final int DEFAULT_STACK_SIZE = 1_000;
 
     public static FluidComponent create(Fluid fluid, Optional<NBTTagCompound> nbt) {
-        return new AutoValue_FluidComponent(fluid, nbt.map(ImmutableNbtWrapper::create));
+        return ComponentPool.intern(new AutoValue_FluidComponent(fluid, nbt.map(ImmutableNbtWrapper::create)));
     }
 
     public static FluidComponent create(Fluid fluid) {
@@ -96,9 +97,9 @@ public abstract class FluidComponent implements Component {
     @Override
     public String description() {
         if (ConfigOptions.SHOW_IDS.get()) {
-            return String.format("%s (#%d)", stack().getLocalizedName(), fluidId());
+            return String.format("%s (#%d)", renderStack().getLocalizedName(), fluidId());
         } else {
-            return stack().getLocalizedName();
+            return renderStack().getLocalizedName();
         }
     }
 
@@ -121,6 +122,24 @@ public abstract class FluidComponent implements Component {
         Draw.drawFluid(fluid(), pos);
     }
 
+    /**
+     * Returns a cached fluid stack, for use in rendering and tooltips. The returned fluid stack is shared, and so
+     * <em>must not</em> be modified!
+     *
+     * <p>
+     * As with {@link ItemComponent#renderStack()}, the fluid stack gets its own copy of our NBT, in case other mods'
+     * tooltip code modifies it anyway.
+     *
+     * <p>
+     * Use {@link #stack()} instead if you need a fluid stack that you can modify or hand off elsewhere.
+     */
+    @Memoized
+    public FluidStack renderStack() {
+        FluidStack fluidStack = new FluidStack(fluid(), DEFAULT_STACK_SIZE);
+        nbt().ifPresent(n -> fluidStack.tag = n);
+        return fluidStack;
+    }
+
     @Override
     public final String toString() {
         return description();
@@ -1,35 +1,181 @@
 package com.github.dcysteine.neicustomdiagram.api.diagram.component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByteArray;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 
 import com.google.auto.value.AutoValue;
+import com.google.common.hash.Hashing;
 
-/** Class wrapping the mutable {@link NBTTagCompound} to make it immutable. */
+/**
+ * Class wrapping the mutable {@link NBTTagCompound} to make it immutable.
+ *
+ * <p>
+ * A canonical string encoding of the NBT, with compound keys sorted, is computed once on creation, along with a 64-bit
+ * hash of it. These are used for {@code hashCode()} and ordering, and let {@code equals()} reject unequal NBT without
+ * walking the NBT tree. NBT with equal hashes is still compared structurally.
+ */
 @AutoValue
 public abstract class ImmutableNbtWrapper implements Comparable<ImmutableNbtWrapper> {
 
     /** This comparator is null-safe, for convenience of usage in component comparators. */
     public static final Comparator<ImmutableNbtWrapper> COMPARATOR = Comparator
-            .nullsFirst(Comparator.<ImmutableNbtWrapper, String>comparing(w -> w.nbt().toString()));
+            .nullsFirst(Comparator.<ImmutableNbtWrapper, String>comparing(ImmutableNbtWrapper::encoding));
+
+    private static final int BYTE_ARRAY_TAG_ID = 7;
+    private static final int STRING_TAG_ID = 8;
+    private static final int LIST_TAG_ID = 9;
+    private static final int COMPOUND_TAG_ID = 10;
+    private static final int INT_ARRAY_TAG_ID = 11;
 
     public static ImmutableNbtWrapper create(NBTTagCompound nbt) {
-        return new AutoValue_ImmutableNbtWrapper((NBTTagCompound) nbt.copy());
+        NBTTagCompound copy = (NBTTagCompound) nbt.copy();
+        String encoding = encode(copy);
+        return new AutoValue_ImmutableNbtWrapper(
+                copy,
+                encoding,
+                Hashing.murmur3_128().hashString(encoding, StandardCharsets.UTF_8).asLong());
     }
 
     protected abstract NBTTagCompound nbt();
 
+    /** Canonical encoding of {@link #nbt()}; equal NBT always has equal encodings. */
+    protected abstract String encoding();
+
+    protected abstract long hash();
+
+    /** Returns a copy of the wrapped NBT, which is safe to modify. */
     public NBTTagCompound get() {
         return (NBTTagCompound) nbt().copy();
     }
 
+    /**
+     * Returns the wrapped NBT without copying it. The returned NBT <em>must not</em> be modified!
+     *
+     * <p>
+     * Use this method for reading NBT in hot paths, such as rendering and tooltips.
+     */
+    public NBTTagCompound getReadOnly() {
+        return nbt();
+    }
+
+    @Override
+    public final boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof ImmutableNbtWrapper)) {
+            return false;
+        }
+
+        ImmutableNbtWrapper otherWrapper = (ImmutableNbtWrapper) other;
+        return hash() == otherWrapper.hash() && nbt().equals(otherWrapper.nbt());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(hash());
+    }
+
     @Override
     public int compareTo(ImmutableNbtWrapper other) {
         if (other == null) {
             return 1;
         }
+        if (other == this) {
+            return 0;
+        }
 
         return COMPARATOR.compare(this, other);
     }
+
+    private static String encode(NBTTagCompound nbt) {
+        StringBuilder builder = new StringBuilder();
+        encode(builder, nbt);
+        return builder.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void encode(StringBuilder builder, NBTBase tag) {
+        switch (tag.getId()) {
+            case COMPOUND_TAG_ID:
+                NBTTagCompound compound = (NBTTagCompound) tag;
+                List<String> keys = new ArrayList<>(compound.func_150296_c());
+                Collections.sort(keys);
+
+                builder.append('{');
+                for (int i = 0; i < keys.size(); i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    String key = keys.get(i);
+                    encodeString(builder, key);
+                    builder.append(':');
+                    encode(builder, compound.getTag(key));
+                }
+                builder.append('}');
+                break;
+
+            case LIST_TAG_ID:
+                NBTTagList list = (NBTTagList) tag;
+                // Include the element type, as empty lists of different types are not equal.
+                builder.append('[').append(list.func_150303_d()).append(';');
+                List<NBTBase> elements = list.tagList;
+                for (int i = 0; i < elements.size(); i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    encode(builder, elements.get(i));
+                }
+                builder.append(']');
+                break;
+
+            case STRING_TAG_ID:
+                encodeString(builder, ((NBTTagString) tag).func_150285_a_());
+                break;
+
+            case BYTE_ARRAY_TAG_ID:
+                // toString() only prints the length of byte arrays, so we must encode the contents ourselves.
+                builder.append("[B;");
+                byte[] bytes = ((NBTTagByteArray) tag).func_150292_c();
+                for (int i = 0; i < bytes.length; i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append(bytes[i]);
+                }
+                builder.append(']');
+                break;
+
+            case INT_ARRAY_TAG_ID:
+                builder.append("[I;");
+                int[] ints = ((NBTTagIntArray) tag).func_150302_c();
+                for (int i = 0; i < ints.length; i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append(ints[i]);
+                }
+                builder.append(']');
+                break;
+
+            default:
+                // Numeric tags, which encode unambiguously with their type suffix.
+                builder.append(tag);
+                break;
+        }
+    }
+
+    private static void encodeString(StringBuilder builder, String string) {
+        builder.append('"').append(string.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+    }
 }
@@ -15,6 +15,7 @@ import com.github.dcysteine.neicustomdiagram.api.draw.Draw;
 import com.github.dcysteine.neicustomdiagram.api.draw.Point;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 
 import codechicken.nei.recipe.GuiCraftingRecipe;
 import codechicken.nei.recipe.GuiUsageRecipe;
@@ -42,9 +43,10 @@ public abstract class ItemComponent implements Component {
 
     public static ItemComponent create(Item item, int damage, Optional<NBTTagCompound> nbt) {
         if (item.isDamageable()) {
-            return new AutoValue_ItemComponent(item, 0, nbt.map(ImmutableNbtWrapper::create));
+            return ComponentPool.intern(new AutoValue_ItemComponent(item, 0, nbt.map(ImmutableNbtWrapper::create)));
         } else {
-            return new AutoValue_ItemComponent(item, damage, nbt.map(ImmutableNbtWrapper::create));
+            return ComponentPool
+                    .intern(new AutoValue_ItemComponent(item, damage, nbt.map(ImmutableNbtWrapper::create)));
         }
     }
 
@@ -119,9 +121,9 @@ public abstract class ItemComponent implements Component {
     @Override
     public String description() {
         if (ConfigOptions.SHOW_IDS.get()) {
-            return String.format("%s (#%d/%d)", stack().getDisplayName(), itemId(), damage());
+            return String.format("%s (#%d/%d)", renderStack().getDisplayName(), itemId(), damage());
         } else {
-            return stack().getDisplayName();
+            return renderStack().getDisplayName();
         }
     }
 
@@ -141,7 +143,29 @@ public abstract class ItemComponent implements Component {
 
     @Override
     public void draw(Point pos) {
-        Draw.drawItem(stack(), pos);
+        Draw.drawItem(renderStack(), pos);
+    }
+
+    /**
+     * Returns a cached item stack, for use in rendering and tooltips. The returned item stack is shared, and so
+     * <em>must not</em> be modified!
+     *
+     * <p>
+     * The item stack is handed to other mods' rendering and tooltip code, which may modify it anyway, so it gets its
+     * own copy of our NBT. That way, the NBT behind {@link #nbtWrapper()} can never change.
+     *
+     * <p>
+     * This only saves re-building the item stack each frame. It does not make drawing allocation-free, as the item
+     * renderer and tooltip code may still allocate.
+     *
+     * <p>
+     * Use {@link #stack()} instead if you need an item stack that you can modify or hand off elsewhere.
+     */
+    @Memoized
+    public ItemStack renderStack() {
+        ItemStack itemStack = new ItemStack(item(), DEFAULT_STACK_SIZE, damage());
+        nbt().ifPresent(n -> itemStack.stackTagCompound = n);
+        return itemStack;
     }
 
     @Override
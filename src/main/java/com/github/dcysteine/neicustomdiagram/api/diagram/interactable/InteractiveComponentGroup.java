@@ -56,6 +56,14 @@ public class InteractiveComponentGroup implements Interactable {
         this(slot.position(), components, slot.tooltip());
     }
 
+    public ImmutableList<DisplayComponent> components() {
+        return components;
+    }
+
+    public Tooltip slotTooltip() {
+        return slotTooltip;
+    }
+
     public int currentIndex(DiagramState diagramState) {
         return diagramState.cycleIndex(components.size());
     }
@@ -121,7 +129,7 @@ public class InteractiveComponentGroup implements Interactable {
 
         Tooltip itemStackTooltip = Tooltip.EMPTY_TOOLTIP;
         if (component.type() == Component.ComponentType.ITEM) {
-            ItemStack stack = (ItemStack) component.stack();
+            ItemStack stack = (ItemStack) component.renderStack();
 
             @SuppressWarnings("unchecked")
             List<String> lines = stack.getTooltip(
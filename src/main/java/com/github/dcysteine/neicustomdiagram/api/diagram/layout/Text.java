@@ -9,6 +9,7 @@ import com.github.dcysteine.neicustomdiagram.api.draw.Dimension;
 import com.github.dcysteine.neicustomdiagram.api.draw.Draw;
 import com.github.dcysteine.neicustomdiagram.api.draw.Point;
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.auto.value.extension.toprettystring.ToPrettyString;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
@@ -20,6 +21,10 @@ import codechicken.lib.gui.GuiDraw;
  *
  * <p>
  * Multi-line text is supported.
+ *
+ * <p>
+ * The text is only measured when its position or dimension is first needed, which is usually when it is first drawn.
+ * Measuring uses the font renderer, which is client state, so this lets text labels be built on worker threads.
  */
 @AutoValue
 public abstract class Text implements BoundedDrawable {
@@ -28,9 +33,10 @@ public abstract class Text implements BoundedDrawable {
 
     public abstract String text();
 
-    /** The center of the text. */
-    @Override
-    public abstract Point position();
+    /** The point from which the text extends, in {@link #direction()}. */
+    public abstract Point anchor();
+
+    public abstract Grid.Direction direction();
 
     /** See {@link Draw.Colour} for colour encoding information. */
     public abstract int colour();
@@ -41,8 +47,26 @@ public abstract class Text implements BoundedDrawable {
     /** If true, the text will be rendered with a shadow. */
     public abstract boolean shadow();
 
+    /** The center of the text. */
+    @Memoized
     @Override
-    public abstract Dimension dimension();
+    public Point position() {
+        Dimension dimension = dimension();
+        return anchor()
+                .translate(direction().xFactor * dimension.width() / 2, direction().yFactor * dimension.height() / 2);
+    }
+
+    @Memoized
+    @Override
+    public Dimension dimension() {
+        int width = GuiDraw.getStringWidth(text());
+        int height = Draw.TEXT_HEIGHT;
+        if (small()) {
+            width /= 2;
+            height /= 2;
+        }
+        return Dimension.create(width, height);
+    }
 
     @Override
     public void draw(DiagramState diagramState) {
@@ -110,18 +134,9 @@ public abstract class Text implements BoundedDrawable {
             return this;
         }
 
+        /** Does not measure the text, so this may be called on any thread. */
         public Text build() {
-            int width = GuiDraw.getStringWidth(text);
-            int height = Draw.TEXT_HEIGHT;
-            if (small) {
-                width /= 2;
-                height /= 2;
-            }
-            Dimension dimension = Dimension.create(width, height);
-
-            Point center = position.translate(direction.xFactor * width / 2, direction.yFactor * height / 2);
-
-            return new AutoValue_Text(text, center, colour, small, shadow, dimension);
+            return new AutoValue_Text(text, position, direction, colour, small, shadow);
         }
     }
 
@@ -0,0 +1,107 @@
+package com.github.dcysteine.neicustomdiagram.api.diagram.matcher;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Implementation of {@link DiagramMatcher} that wraps another diagram matcher, and caches the results of
+ * {@link #match(Interactable.RecipeType, Component)} in a bounded LRU cache.
+ *
+ * <p>
+ * This is intended for use with diagram groups that generate their diagrams dynamically (see
+ * {@link CustomDiagramMatcher#CustomDiagramMatcher(java.util.function.BiFunction)}), and which would otherwise
+ * re-generate the same diagrams every time the same component is looked up. Only use it if the wrapped matcher's
+ * results depend only on the looked up component, and on state that is covered by {@link #invalidateAll()}: the ore
+ * dictionary, NEI's item list, and config options.
+ */
+public class CachingDiagramMatcher implements DiagramMatcher {
+
+    /** All live instances, so that {@link #invalidateAll()} can reach them. */
+    private static final Set<CachingDiagramMatcher> INSTANCES = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    protected final DiagramMatcher delegate;
+    protected final Cache<CacheKey, ImmutableList<Diagram>> cache;
+
+    /** Set {@code maximumSize} to 0 to disable caching. */
+    public CachingDiagramMatcher(DiagramMatcher delegate, int maximumSize) {
+        this.delegate = delegate;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+
+        INSTANCES.add(this);
+    }
+
+    /**
+     * Clears the caches of all instances. Should be called whenever state that dynamic diagrams may depend on changes.
+     */
+    public static void invalidateAll() {
+        synchronized (INSTANCES) {
+            INSTANCES.forEach(CachingDiagramMatcher::invalidate);
+        }
+    }
+
+    /** Clears the cache of this instance. */
+    public void invalidate() {
+        cache.invalidateAll();
+    }
+
+    /** Returns hit and miss counts for this instance. */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Collection<Diagram> all() {
+        return delegate.all();
+    }
+
+    @Override
+    public Collection<Diagram> match(Interactable.RecipeType recipeType, Component component) {
+        try {
+            return cache.get(
+                    CacheKey.create(recipeType, component),
+                    () -> ImmutableList.copyOf(delegate.match(recipeType, component)));
+        } catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    @Override
+    public Optional<Collection<Component>> matchableComponents(Interactable.RecipeType recipeType) {
+        return delegate.matchableComponents(recipeType);
+    }
+
+    @Override
+    public boolean forEachMatchableKey(Interactable.RecipeType recipeType, LongConsumer keyConsumer,
+            Consumer<? super Component> componentConsumer) {
+        return delegate.forEachMatchableKey(recipeType, keyConsumer, componentConsumer);
+    }
+
+    @AutoValue
+    protected abstract static class CacheKey {
+
+        protected static CacheKey create(Interactable.RecipeType recipeType, Component component) {
+            return new AutoValue_CachingDiagramMatcher_CacheKey(recipeType, component);
+        }
+
+        protected abstract Interactable.RecipeType recipeType();
+
+        protected abstract Component component();
+    }
+}
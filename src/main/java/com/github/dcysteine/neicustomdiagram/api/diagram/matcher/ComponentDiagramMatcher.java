@@ -2,13 +2,19 @@ package com.github.dcysteine.neicustomdiagram.api.diagram.matcher;
 
 import java.util.Collection;
 import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Iterables;
 
 /**
  * Implementation of {@link DiagramMatcher} that looks up diagrams by their components.
@@ -25,15 +31,28 @@ public class ComponentDiagramMatcher implements DiagramMatcher {
 
     protected final ImmutableMap<Interactable.RecipeType, ImmutableSetMultimap<Component, Diagram>> matchData;
 
+    /** Deduplicated, in the order that diagrams were first added. */
+    protected final ImmutableList<Diagram> allDiagrams;
+
     public ComponentDiagramMatcher(
             ImmutableMap<Interactable.RecipeType, ImmutableSetMultimap<Component, Diagram>> matchData) {
+        this(
+                matchData,
+                ImmutableList.copyOf(
+                        matchData.values().stream().map(ImmutableSetMultimap::values).flatMap(Collection::stream)
+                                .collect(Collectors.toCollection(LinkedHashSet::new))));
+    }
+
+    protected ComponentDiagramMatcher(
+            ImmutableMap<Interactable.RecipeType, ImmutableSetMultimap<Component, Diagram>> matchData,
+            ImmutableList<Diagram> allDiagrams) {
         this.matchData = matchData;
+        this.allDiagrams = allDiagrams;
     }
 
     @Override
     public Collection<Diagram> all() {
-        return matchData.values().stream().map(ImmutableSetMultimap::values).flatMap(Collection::stream)
-                .collect(Collectors.toSet());
+        return allDiagrams;
     }
 
     @Override
@@ -41,6 +60,35 @@ public class ComponentDiagramMatcher implements DiagramMatcher {
         return matchData.get(recipeType).get(component);
     }
 
+    @Override
+    public Collection<Diagram> match(Interactable.RecipeType recipeType, Collection<? extends Component> components) {
+        ImmutableSetMultimap<Component, Diagram> recipeTypeMatchData = matchData.get(recipeType);
+        if (components.size() == 1) {
+            return recipeTypeMatchData.get(Iterables.getOnlyElement(components));
+        }
+
+        // Merge the posting sets directly, skipping components with no matches.
+        Set<Diagram> diagrams = null;
+        for (Component component : components) {
+            ImmutableSet<Diagram> matches = recipeTypeMatchData.get(component);
+            if (matches.isEmpty()) {
+                continue;
+            }
+
+            if (diagrams == null) {
+                diagrams = new LinkedHashSet<>(matches);
+            } else {
+                diagrams.addAll(matches);
+            }
+        }
+        return diagrams == null ? ImmutableList.of() : ImmutableList.copyOf(diagrams);
+    }
+
+    @Override
+    public Optional<Collection<Component>> matchableComponents(Interactable.RecipeType recipeType) {
+        return Optional.of(matchData.get(recipeType).keySet());
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -48,9 +96,11 @@ public class ComponentDiagramMatcher implements DiagramMatcher {
     public static final class Builder {
 
         private final EnumMap<Interactable.RecipeType, ImmutableSetMultimap.Builder<Component, Diagram>> matchDataBuilder;
+        private final Set<Diagram> allDiagrams;
 
         public Builder() {
             matchDataBuilder = new EnumMap<>(Interactable.RecipeType.class);
+            allDiagrams = new LinkedHashSet<>();
 
             for (Interactable.RecipeType recipeType : Interactable.RecipeType.values()) {
                 matchDataBuilder.put(recipeType, ImmutableSetMultimap.builder());
@@ -66,7 +116,7 @@ public class ComponentDiagramMatcher implements DiagramMatcher {
                     .builder();
             matchDataBuilder.forEach((key, value) -> builder.put(key, value.build()));
 
-            return new ComponentDiagramMatcher(builder.build());
+            return new ComponentDiagramMatcher(builder.build(), ImmutableList.copyOf(allDiagrams));
         }
 
         public final class DiagramSubBuilder {
@@ -101,6 +151,7 @@ public class ComponentDiagramMatcher implements DiagramMatcher {
              * If ignoring NBT, it is the caller's responsibility to remove NBT from {@code component}.
              */
             public DiagramSubBuilder addComponent(Interactable.RecipeType recipeType, Component component) {
+                allDiagrams.add(diagram);
                 matchDataBuilder.get(recipeType).put(component, diagram);
                 return this;
             }
@@ -111,7 +162,10 @@ public class ComponentDiagramMatcher implements DiagramMatcher {
             public DiagramSubBuilder addAllComponents(Interactable.RecipeType recipeType,
                     Iterable<? extends Component> components) {
                 ImmutableSetMultimap.Builder<Component, Diagram> builder = matchDataBuilder.get(recipeType);
-                components.forEach(c -> builder.put(c, diagram));
+                components.forEach(c -> {
+                    allDiagrams.add(diagram);
+                    builder.put(c, diagram);
+                });
                 return this;
             }
         }
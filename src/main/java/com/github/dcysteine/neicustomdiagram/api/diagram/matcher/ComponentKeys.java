@@ -0,0 +1,119 @@
+package com.github.dcysteine.neicustomdiagram.api.diagram.matcher;
+
+import java.util.Optional;
+
+import net.minecraft.item.Item;
+import net.minecraftforge.fluids.Fluid;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.FluidComponent;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
+
+/**
+ * Packs components without NBT into a single {@code long} key: component type, item or fluid ordinal, and item damage.
+ * Indexes can store these keys in primitive arrays, rather than holding on to a component object per entry.
+ *
+ * <p>
+ * Ordinals come from {@link ComponentOrdinals} rather than from the item and fluid registries, as registry IDs can be
+ * remapped after an index has been built. Keys are never negative, and never have bit 62 set, so callers may use those
+ * bits for their own purposes.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+public final class ComponentKeys {
+
+    /** Returned for components which cannot be packed, such as components with NBT. */
+    public static final long NO_KEY = -1L;
+    /**
+     * Returned by {@link #get(Component)} for components whose item or fluid has no ordinal yet. No index can contain
+     * such a component under a packed key, as {@link #getOrAssign(Component)} always assigns ordinals.
+     */
+    public static final long UNKNOWN_KEY = -2L;
+
+    private static final int COMPONENT_TYPE_SHIFT = 61;
+    private static final int ID_SHIFT = 32;
+    private static final int MAX_ID = (1 << (COMPONENT_TYPE_SHIFT - ID_SHIFT)) - 1;
+
+    // Static class.
+    private ComponentKeys() {}
+
+    /**
+     * Returns the key for {@code component}, or {@link #NO_KEY} if it cannot be packed. Assigns a new ordinal to its
+     * item or fluid if needed, so call this when building indexes.
+     */
+    public static long getOrAssign(Component component) {
+        return pack(component, true);
+    }
+
+    /**
+     * Returns the key for {@code component}, {@link #NO_KEY} if it cannot be packed, or {@link #UNKNOWN_KEY} if its
+     * item or fluid has no ordinal yet. Never assigns ordinals, so call this for lookups.
+     */
+    public static long get(Component component) {
+        return pack(component, false);
+    }
+
+    /** Inverse of {@link #getOrAssign(Component)}. */
+    public static Optional<Component> unpack(long key) {
+        int id = (int) (key >>> ID_SHIFT) & MAX_ID;
+        int damage = (int) key;
+        switch (Component.ComponentType.values()[(int) (key >>> COMPONENT_TYPE_SHIFT) & 1]) {
+            case ITEM:
+                return Optional.of(ItemComponent.create((Item) ComponentOrdinals.getObject(id), damage));
+
+            case FLUID:
+                return Optional.of(FluidComponent.create((Fluid) ComponentOrdinals.getObject(id)));
+
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /** Hash function for keys, for use in open-addressing hash tables. */
+    public static int hash(long key) {
+        // Murmur3 64-bit finalizer.
+        key ^= key >>> 33;
+        key *= 0xFF51_AFD7_ED55_8CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CE_B9FE_1A85_EC53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static long pack(Component component, boolean assign) {
+        if (component.nbtWrapper().isPresent()) {
+            return NO_KEY;
+        }
+
+        int id;
+        int damage;
+        switch (component.type()) {
+            case ITEM:
+                ItemComponent itemComponent = (ItemComponent) component;
+                id = assign ? ComponentOrdinals.getOrAssign(itemComponent.item())
+                        : ComponentOrdinals.get(itemComponent.item());
+                damage = itemComponent.damage();
+                break;
+
+            case FLUID:
+                FluidComponent fluidComponent = (FluidComponent) component;
+                id = assign ? ComponentOrdinals.getOrAssign(fluidComponent.fluid())
+                        : ComponentOrdinals.get(fluidComponent.fluid());
+                damage = 0;
+                break;
+
+            default:
+                return NO_KEY;
+        }
+        if (id == ComponentOrdinals.NO_ORDINAL) {
+            return UNKNOWN_KEY;
+        } else if (id > MAX_ID) {
+            return NO_KEY;
+        }
+
+        return ((long) component.type().ordinal() << COMPONENT_TYPE_SHIFT)
+                | ((long) id << ID_SHIFT)
+                | (damage & 0xFFFF_FFFFL);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.dcysteine.neicustomdiagram.api.diagram.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns stable ordinals to items and fluids, for use in packed component keys.
+ *
+ * <p>
+ * Registry IDs cannot be used for this, because FML remaps item and fluid IDs when joining a world or server, which can
+ * happen after diagram groups have been generated. The {@code Item} and {@code Fluid} instances themselves stay the
+ * same, so ordinals are assigned by identity, and never change for the rest of the run.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+final class ComponentOrdinals {
+
+    /** Returned for objects which have not been assigned an ordinal. */
+    static final int NO_ORDINAL = -1;
+
+    // Neither Item nor Fluid override equals(), so this map is keyed by identity.
+    private static final Map<Object, Integer> ORDINALS = new ConcurrentHashMap<>();
+    private static final List<Object> OBJECTS = new ArrayList<>();
+
+    // Static class.
+    private ComponentOrdinals() {}
+
+    /** Returns the ordinal of {@code object}, assigning a new ordinal if it doesn't have one yet. */
+    static int getOrAssign(Object object) {
+        Integer ordinal = ORDINALS.get(object);
+        if (ordinal != null) {
+            return ordinal;
+        }
+
+        synchronized (OBJECTS) {
+            ordinal = ORDINALS.get(object);
+            if (ordinal == null) {
+                ordinal = OBJECTS.size();
+                OBJECTS.add(object);
+                ORDINALS.put(object, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Returns the ordinal of {@code object}, or {@link #NO_ORDINAL} if it has not been assigned one. Never assigns
+     * ordinals, so lookups of unknown objects don't grow this class.
+     */
+    static int get(Object object) {
+        return ORDINALS.getOrDefault(object, NO_ORDINAL);
+    }
+
+    /** Returns the object with ordinal {@code ordinal}. */
+    static Object getObject(int ordinal) {
+        synchronized (OBJECTS) {
+            return OBJECTS.get(ordinal);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.github.dcysteine.neicustomdiagram.api.diagram.matcher;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 /** This interface contains the logic for figuring out which diagrams match an item or fluid. */
 public interface DiagramMatcher {
@@ -12,4 +19,55 @@ public interface DiagramMatcher {
     Collection<Diagram> all();
 
     Collection<Diagram> match(Interactable.RecipeType recipeType, Component component);
+
+    /**
+     * Returns all diagrams matching any of {@code components}, without duplicates. Diagrams are ordered by the first
+     * component that they match, and then by the order in which that component's matches are returned.
+     */
+    default Collection<Diagram> match(Interactable.RecipeType recipeType, Collection<? extends Component> components) {
+        if (components.size() == 1) {
+            return match(recipeType, Iterables.getOnlyElement(components));
+        }
+
+        Set<Diagram> diagrams = new LinkedHashSet<>();
+        components.forEach(component -> diagrams.addAll(match(recipeType, component)));
+        return ImmutableList.copyOf(diagrams);
+    }
+
+    /**
+     * Returns all components that can have matches for {@code recipeType}, if they are known ahead of time. This is
+     * used to skip lookups that cannot match anything.
+     *
+     * <p>
+     * Matchers that find their matches dynamically should return an empty optional, which is the default.
+     */
+    default Optional<Collection<Component>> matchableComponents(Interactable.RecipeType recipeType) {
+        return Optional.empty();
+    }
+
+    /**
+     * Like {@link #matchableComponents(Interactable.RecipeType)}, but passes each component to {@code keyConsumer} as
+     * its key from {@link ComponentKeys}, if it can be packed, and to {@code componentConsumer} otherwise. This lets
+     * indexes avoid holding on to a component object per entry.
+     *
+     * <p>
+     * Returns {@code false}, without calling either consumer, if the matchable components are not known ahead of time.
+     */
+    default boolean forEachMatchableKey(Interactable.RecipeType recipeType, LongConsumer keyConsumer,
+            Consumer<? super Component> componentConsumer) {
+        Optional<Collection<Component>> components = matchableComponents(recipeType);
+        if (!components.isPresent()) {
+            return false;
+        }
+
+        for (Component component : components.get()) {
+            long key = ComponentKeys.getOrAssign(component);
+            if (key == ComponentKeys.NO_KEY) {
+                componentConsumer.accept(component);
+            } else {
+                keyConsumer.accept(key);
+            }
+        }
+        return true;
+    }
 }
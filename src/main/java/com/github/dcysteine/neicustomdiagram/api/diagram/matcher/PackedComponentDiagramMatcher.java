@@ -0,0 +1,319 @@
+package com.github.dcysteine.neicustomdiagram.api.diagram.matcher;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+/**
+ * Implementation of {@link DiagramMatcher} that looks up diagrams by their components, like
+ * {@link ComponentDiagramMatcher}, but uses a much more compact index.
+ *
+ * <p>
+ * Components without NBT are packed into a single {@code long} key (the recipe type, plus the component's key from
+ * {@link ComponentKeys}), and stored in an open-addressing hash table of primitive arrays. Each key points to a posting
+ * list of diagram indices, and all posting lists are stored in a single {@code int} array. Components with NBT are
+ * rare, and are stored in a small side table instead.
+ *
+ * <p>
+ * Lookups do not hash or allocate components, and matches are returned as lightweight views over the posting list. As
+ * with {@link ComponentDiagramMatcher}, NBT is ignored by default, and it is the caller's responsibility to remove NBT
+ * from components before adding them.
+ */
+public class PackedComponentDiagramMatcher implements DiagramMatcher {
+
+    /** Marks empty slots in {@link #keys}. Never a valid key, as keys never have the sign bit set. */
+    private static final long EMPTY_KEY = -1L;
+
+    private static final int RECIPE_TYPE_SHIFT = 62;
+    private static final long COMPONENT_KEY_MASK = (1L << RECIPE_TYPE_SHIFT) - 1;
+
+    protected final ImmutableList<Diagram> diagrams;
+
+    /** Open-addressing hash table; the capacity is always a power of 2. */
+    protected final long[] keys;
+    /** For each slot in {@link #keys}, the index in {@link #postings} where its posting list starts. */
+    protected final int[] postingOffsets;
+    /** Each posting list is stored as its length, followed by that many diagram indices. */
+    protected final int[] postings;
+
+    /** Maps components that cannot be packed to diagram indices. */
+    protected final ImmutableMap<Interactable.RecipeType, ImmutableSetMultimap<Component, Integer>> sideTable;
+
+    protected PackedComponentDiagramMatcher(ImmutableList<Diagram> diagrams, long[] keys, int[] postingOffsets,
+            int[] postings, ImmutableMap<Interactable.RecipeType, ImmutableSetMultimap<Component, Integer>> sideTable) {
+        this.diagrams = diagrams;
+        this.keys = keys;
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+        this.sideTable = sideTable;
+    }
+
+    @Override
+    public Collection<Diagram> all() {
+        return diagrams;
+    }
+
+    @Override
+    public Collection<Diagram> match(Interactable.RecipeType recipeType, Component component) {
+        long key = pack(recipeType, component, false);
+        if (key == ComponentKeys.NO_KEY) {
+            return Lists.transform(sideTable.get(recipeType).get(component).asList(), diagrams::get);
+        } else if (key == ComponentKeys.UNKNOWN_KEY) {
+            return ImmutableList.of();
+        }
+
+        int slot = findSlot(key);
+        return slot < 0 ? ImmutableList.of() : new PostingList(postingOffsets[slot]);
+    }
+
+    @Override
+    public Collection<Diagram> match(Interactable.RecipeType recipeType, Collection<? extends Component> components) {
+        if (components.size() == 1) {
+            return match(recipeType, Iterables.getOnlyElement(components));
+        }
+
+        // Merge posting lists by diagram index, keeping the order in which diagram indices are first seen.
+        BitSet seen = new BitSet(diagrams.size());
+        ImmutableList.Builder<Diagram> builder = ImmutableList.builder();
+        for (Component component : components) {
+            long key = pack(recipeType, component, false);
+            if (key == ComponentKeys.UNKNOWN_KEY) {
+                continue;
+            } else if (key == ComponentKeys.NO_KEY) {
+                for (int index : sideTable.get(recipeType).get(component)) {
+                    if (!seen.get(index)) {
+                        seen.set(index);
+                        builder.add(diagrams.get(index));
+                    }
+                }
+                continue;
+            }
+
+            int slot = findSlot(key);
+            if (slot < 0) {
+                continue;
+            }
+            int offset = postingOffsets[slot];
+            for (int i = offset + 1; i <= offset + postings[offset]; i++) {
+                int index = postings[i];
+                if (!seen.get(index)) {
+                    seen.set(index);
+                    builder.add(diagrams.get(index));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Optional<Collection<Component>> matchableComponents(Interactable.RecipeType recipeType) {
+        List<Component> components = new ArrayList<>(sideTable.get(recipeType).keySet());
+        for (long key : keys) {
+            if (key != EMPTY_KEY && (int) (key >>> RECIPE_TYPE_SHIFT) == recipeType.ordinal()) {
+                ComponentKeys.unpack(key & COMPONENT_KEY_MASK).ifPresent(components::add);
+            }
+        }
+        return Optional.of(components);
+    }
+
+    /** Passes our keys through directly, rather than unpacking them into components. */
+    @Override
+    public boolean forEachMatchableKey(Interactable.RecipeType recipeType, LongConsumer keyConsumer,
+            Consumer<? super Component> componentConsumer) {
+        for (long key : keys) {
+            if (key != EMPTY_KEY && (int) (key >>> RECIPE_TYPE_SHIFT) == recipeType.ordinal()) {
+                keyConsumer.accept(key & COMPONENT_KEY_MASK);
+            }
+        }
+        sideTable.get(recipeType).keySet().forEach(componentConsumer);
+        return true;
+    }
+
+    /** Returns the slot in {@link #keys} holding {@code key}, or -1 if there is no such slot. */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        for (int slot = ComponentKeys.hash(key) & mask;; slot = (slot + 1) & mask) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                return slot;
+            } else if (slotKey == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the packed key for {@code component}, or {@link ComponentKeys#NO_KEY} if it cannot be packed and must go
+     * in the side table instead.
+     *
+     * <p>
+     * If {@code assign} is {@code false}, returns {@link ComponentKeys#UNKNOWN_KEY} rather than assigning a new
+     * ordinal.
+     */
+    private static long pack(Interactable.RecipeType recipeType, Component component, boolean assign) {
+        long key = assign ? ComponentKeys.getOrAssign(component) : ComponentKeys.get(component);
+        return key < 0 ? key : ((long) recipeType.ordinal() << RECIPE_TYPE_SHIFT) | key;
+    }
+
+    /** Read-only view of a single posting list. */
+    private final class PostingList extends AbstractList<Diagram> {
+
+        private final int offset;
+
+        private PostingList(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public Diagram get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            return diagrams.get(postings[offset + 1 + index]);
+        }
+
+        @Override
+        public int size() {
+            return postings[offset];
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** This builder has the same interface as {@link ComponentDiagramMatcher.Builder}. */
+    public static final class Builder {
+
+        private final Map<Diagram, Integer> diagramIndices;
+        private final Map<Long, Set<Integer>> postingsBuilder;
+        private final EnumMap<Interactable.RecipeType, ImmutableSetMultimap.Builder<Component, Integer>> sideTableBuilder;
+
+        public Builder() {
+            diagramIndices = new IdentityHashMap<>();
+            postingsBuilder = new LinkedHashMap<>();
+            sideTableBuilder = new EnumMap<>(Interactable.RecipeType.class);
+
+            for (Interactable.RecipeType recipeType : Interactable.RecipeType.values()) {
+                sideTableBuilder.put(recipeType, ImmutableSetMultimap.builder());
+            }
+        }
+
+        public DiagramSubBuilder addDiagram(Diagram diagram) {
+            return new DiagramSubBuilder(diagram);
+        }
+
+        public PackedComponentDiagramMatcher build() {
+            Diagram[] diagrams = new Diagram[diagramIndices.size()];
+            diagramIndices.forEach((diagram, index) -> diagrams[index] = diagram);
+
+            // Keep the load factor at or below 0.5, so that probe sequences stay short.
+            int capacity = Integer.highestOneBit(Math.max(1, postingsBuilder.size()) * 2 - 1) << 1;
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY_KEY);
+            int[] postingOffsets = new int[capacity];
+            int[] postings = new int[postingsBuilder.size()
+                    + postingsBuilder.values().stream().mapToInt(Set::size).sum()];
+
+            int mask = capacity - 1;
+            int offset = 0;
+            for (Map.Entry<Long, Set<Integer>> entry : postingsBuilder.entrySet()) {
+                long key = entry.getKey();
+                int slot = ComponentKeys.hash(key) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                postingOffsets[slot] = offset;
+
+                postings[offset++] = entry.getValue().size();
+                for (int index : entry.getValue()) {
+                    postings[offset++] = index;
+                }
+            }
+
+            ImmutableMap.Builder<Interactable.RecipeType, ImmutableSetMultimap<Component, Integer>> builder = ImmutableMap
+                    .builder();
+            sideTableBuilder.forEach((key, value) -> builder.put(key, value.build()));
+
+            return new PackedComponentDiagramMatcher(
+                    ImmutableList.copyOf(diagrams),
+                    keys,
+                    postingOffsets,
+                    postings,
+                    builder.build());
+        }
+
+        public final class DiagramSubBuilder {
+
+            private final int index;
+
+            private DiagramSubBuilder(Diagram diagram) {
+                this.index = diagramIndices.computeIfAbsent(diagram, d -> diagramIndices.size());
+            }
+
+            /**
+             * If ignoring NBT, it is the caller's responsibility to remove NBT from {@code component}.
+             */
+            public DiagramSubBuilder addComponent(Component component) {
+                for (Interactable.RecipeType recipeType : Interactable.RecipeType.values()) {
+                    this.addComponent(recipeType, component);
+                }
+                return this;
+            }
+
+            /**
+             * If ignoring NBT, it is the caller's responsibility to remove NBT from {@code components}.
+             */
+            public DiagramSubBuilder addAllComponents(Iterable<? extends Component> components) {
+                for (Interactable.RecipeType recipeType : Interactable.RecipeType.values()) {
+                    this.addAllComponents(recipeType, components);
+                }
+                return this;
+            }
+
+            /**
+             * If ignoring NBT, it is the caller's responsibility to remove NBT from {@code component}.
+             */
+            public DiagramSubBuilder addComponent(Interactable.RecipeType recipeType, Component component) {
+                long key = pack(recipeType, component, true);
+                if (key == ComponentKeys.NO_KEY) {
+                    sideTableBuilder.get(recipeType).put(component, index);
+                } else {
+                    postingsBuilder.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(index);
+                }
+                return this;
+            }
+
+            /**
+             * If ignoring NBT, it is the caller's responsibility to remove NBT from {@code components}.
+             */
+            public DiagramSubBuilder addAllComponents(Interactable.RecipeType recipeType,
+                    Iterable<? extends Component> components) {
+                components.forEach(c -> addComponent(recipeType, c));
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.dcysteine.neicustomdiagram.generators.debug.memoryusage;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.minecraft.init.Blocks;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Grid;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Layout;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Text;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.DiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.HeapAccounting;
+import com.github.dcysteine.neicustomdiagram.main.Lang;
+import com.github.dcysteine.neicustomdiagram.main.config.DiagramGroupVisibility;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Generates debug diagrams showing the estimated heap retained by each diagram group.
+ *
+ * <p>
+ * The diagrams are built from {@link HeapAccounting} each time they are looked up, so that they include diagram groups
+ * which were generated after this one, lazily, or in the background.
+ */
+public final class DebugMemoryUsage implements DiagramGenerator {
+
+    public static final ItemComponent ICON = ItemComponent.create(Blocks.chest, 0).get();
+
+    private final DiagramGroupInfo info;
+
+    public DebugMemoryUsage(String groupId) {
+        this.info = DiagramGroupInfo.builder(Lang.DEBUG_MEMORY_USAGE.trans("groupname"), groupId, ICON, 1)
+                .setDefaultVisibility(DiagramGroupVisibility.DISABLED).setEmptyDiagramPredicate(diagram -> false)
+                .setDescription(
+                        "This diagram shows the estimated memory used by each diagram group."
+                                + "\nRequires the heap_accounting config option to be enabled.")
+                .build();
+    }
+
+    @Override
+    public DiagramGroupInfo info() {
+        return info;
+    }
+
+    @Override
+    public DiagramGroup generate() {
+        return new DiagramGroup(info, new DiagramMatcher() {
+
+            @Override
+            public Collection<Diagram> all() {
+                return generateDiagrams();
+            }
+
+            @Override
+            public Collection<Diagram> match(Interactable.RecipeType recipeType, Component component) {
+                if (component.equals(ICON)) {
+                    return generateDiagrams();
+                }
+                return Lists.newArrayList();
+            }
+        });
+    }
+
+    private static List<Diagram> generateDiagrams() {
+        List<HeapAccounting.Entry> entries = HeapAccounting.INSTANCE.entries().stream()
+                .sorted(Comparator.comparingLong(HeapAccounting.Entry::estimatedBytes).reversed())
+                .collect(Collectors.toList());
+        if (entries.isEmpty()) {
+            return ImmutableList.of(buildDiagram(ImmutableList.of(Lang.DEBUG_MEMORY_USAGE.trans("nodata"))));
+        }
+
+        return entries.stream().map(entry -> buildDiagram(buildLines(entry))).collect(Collectors.toList());
+    }
+
+    private static List<String> buildLines(HeapAccounting.Entry entry) {
+        return ImmutableList.of(
+                entry.groupId(),
+                "",
+                Lang.DEBUG_MEMORY_USAGE.transf("estimatedsize", entry.estimatedBytes() / 1024),
+                Lang.DEBUG_MEMORY_USAGE.transf("diagrams", entry.diagrams()),
+                Lang.DEBUG_MEMORY_USAGE.transf("layouts", entry.layouts()),
+                Lang.DEBUG_MEMORY_USAGE.transf("componentgroups", entry.interactiveComponentGroups()),
+                Lang.DEBUG_MEMORY_USAGE.transf("displaycomponents", entry.displayComponents()),
+                Lang.DEBUG_MEMORY_USAGE.transf("tooltips", entry.tooltips()),
+                Lang.DEBUG_MEMORY_USAGE.transf("tooltiplines", entry.tooltipLines()));
+    }
+
+    private static Diagram buildDiagram(List<String> lines) {
+        Layout layout = Layout.builder().addAllLabels(
+                Text.multiLineBuilder(Grid.GRID.edge(0, 0, Grid.Direction.NW), Grid.Direction.SE).addAllLines(lines)
+                        .build())
+                .build();
+        return Diagram.builder().addLayout(layout).build();
+    }
+}
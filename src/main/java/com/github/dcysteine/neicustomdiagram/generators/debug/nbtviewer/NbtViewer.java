@@ -17,6 +17,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Grid;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Layout;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Slot;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Text;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CachingDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
@@ -47,16 +48,20 @@ public final class NbtViewer implements DiagramGenerator {
 
     @Override
     public DiagramGroup generate() {
-        return new DiagramGroup(info, new CustomDiagramMatcher(this::generateDiagrams));
+        return new DiagramGroup(
+                info,
+                new CachingDiagramMatcher(
+                        new CustomDiagramMatcher(this::generateDiagrams),
+                        ConfigOptions.DYNAMIC_DIAGRAM_CACHE_SIZE.get()));
     }
 
     private Collection<Diagram> generateDiagrams(Interactable.RecipeType recipeType, Component component) {
-        if (!component.nbt().isPresent()) {
+        if (!component.nbtWrapper().isPresent()) {
             return Lists.newArrayList();
         }
 
         return Lists.newArrayList(
-                Diagram.builder().addLayout(buildLayout(component.nbt().get()))
+                Diagram.builder().addLayout(buildLayout(component.nbtReadOnly().get()))
                         .insertIntoSlot(Layout.SlotKey.create(SLOT_KEY), DisplayComponent.builder(component).build())
                         .build());
     }
@@ -1,7 +1,6 @@
 package com.github.dcysteine.neicustomdiagram.generators.forge.oredictionary;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.stream.Collectors;
 
 import net.minecraft.init.Items;
@@ -11,7 +10,6 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
-import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.CustomInteractable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
@@ -19,11 +17,12 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Grid;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Layout;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.SlotGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Text;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CachingDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.github.dcysteine.neicustomdiagram.main.config.DiagramGroupVisibility;
-import com.github.dcysteine.neicustomdiagram.util.ComponentTransformer;
 import com.github.dcysteine.neicustomdiagram.util.OreDictUtil;
 
 import codechicken.lib.gui.GuiDraw;
@@ -58,7 +57,11 @@ public final class ForgeOreDictionary implements DiagramGenerator {
 
     @Override
     public DiagramGroup generate() {
-        return new DiagramGroup(info, new CustomDiagramMatcher(ForgeOreDictionary::generateDiagrams));
+        return new DiagramGroup(
+                info,
+                new CachingDiagramMatcher(
+                        new CustomDiagramMatcher(ForgeOreDictionary::generateDiagrams),
+                        ConfigOptions.DYNAMIC_DIAGRAM_CACHE_SIZE.get()));
     }
 
     private static Collection<Diagram> generateDiagrams(Interactable.RecipeType recipeType, Component component) {
@@ -67,13 +70,9 @@ public final class ForgeOreDictionary implements DiagramGenerator {
     }
 
     private static Diagram generateDiagram(String oreName) {
-        List<ItemComponent> components = OreDictUtil.getComponents(oreName);
-        List<List<DisplayComponent>> displayComponentPermutations = components.stream()
-                .map(OreDictUtil::getPermutations).map(ComponentTransformer::transformToDisplay)
-                .collect(Collectors.toList());
-
         Diagram.Builder builder = Diagram.builder().addLayout(buildLayout(oreName));
-        builder.autoInsertIntoSlotGroup(SLOT_GROUP_KEY).insertEachGroupSafe(displayComponentPermutations);
+        builder.autoInsertIntoSlotGroup(SLOT_GROUP_KEY)
+                .insertEachGroupSafe(OreDictUtil.getDisplayPermutations(oreName));
 
         return builder.build();
     }
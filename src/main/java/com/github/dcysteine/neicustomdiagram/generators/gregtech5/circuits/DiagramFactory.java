@@ -11,7 +11,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.CustomInteractable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Grid;
-import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.ComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.PackedComponentDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.api.draw.Draw;
 import com.github.dcysteine.neicustomdiagram.api.draw.Point;
@@ -90,7 +90,7 @@ class DiagramFactory {
         return diagramBuilder.build();
     }
 
-    void buildDiagrams(ItemComponent circuit, ComponentDiagramMatcher.Builder matcherBuilder) {
+    void buildDiagrams(ItemComponent circuit, PackedComponentDiagramMatcher.Builder matcherBuilder) {
         ImmutableList<CircuitRecipe> recipes = recipeHandler.getCircuitAssemblingMachineRecipes(circuit);
 
         if (recipes.isEmpty()) {
@@ -106,7 +106,7 @@ class DiagramFactory {
     }
 
     void buildDiagram(ItemComponent circuit, int recipeIndex, int recipeCount, Optional<CircuitRecipe> recipeOptional,
-            ComponentDiagramMatcher.Builder matcherBuilder) {
+            PackedComponentDiagramMatcher.Builder matcherBuilder) {
         Diagram.Builder diagramBuilder = Diagram.builder().addAllLayouts(layoutHandler.requiredLayouts())
                 .addAllOptionalLayouts(layoutHandler.optionalLayouts());
         Set<Component> craftingComponents = Sets.newHashSet(circuit);
@@ -7,8 +7,9 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
-import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.ComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.PackedComponentDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
+import com.github.dcysteine.neicustomdiagram.main.GenerationProfiler;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
 import com.google.common.collect.ImmutableList;
@@ -49,16 +50,25 @@ public final class GregTechCircuits implements DiagramGenerator {
         return info;
     }
 
+    /**
+     * Generation only reads GregTech's circuit assembler recipes and the ore dictionary. The two IC2 circuits are
+     * looked up through GregTech's IC2 item cache, which GregTech has already filled during its own recipe loading.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public DiagramGroup generate() {
-        circuitLineHandler.initialize();
-        labelHandler.initialize();
-        layoutHandler.initialize();
-        recipeHandler.initialize();
+        GenerationProfiler.INSTANCE.profile(info, "CircuitLineHandler", circuitLineHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "LabelHandler", labelHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "LayoutHandler", layoutHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "RecipeHandler", recipeHandler::initialize);
 
         ImmutableList<Diagram> overviewDiagram = ImmutableList.of(diagramFactory.buildOverviewDiagram());
 
-        ComponentDiagramMatcher.Builder matcherBuilder = ComponentDiagramMatcher.builder();
+        PackedComponentDiagramMatcher.Builder matcherBuilder = PackedComponentDiagramMatcher.builder();
         circuitLineHandler.allCircuits().forEach(circuit -> diagramFactory.buildDiagrams(circuit, matcherBuilder));
 
         return new CustomDiagramGroup(
@@ -3,14 +3,13 @@ package com.github.dcysteine.neicustomdiagram.generators.gregtech5.circuits;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.IRecipe;
 
-import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
-import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeUtil;
+import com.github.dcysteine.neicustomdiagram.main.SourceTracker;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Iterables;
@@ -37,26 +36,22 @@ class RecipeHandler {
     @SuppressWarnings("unchecked")
     void initialize() {
         craftingTableOutputs = new HashSet<>();
+        SourceTracker.INSTANCE.recordRead(SourceTracker.CRAFTING_RECIPES);
         ((List<IRecipe>) CraftingManager.getInstance().getRecipeList()).stream()
                 .filter(recipe -> recipe.getRecipeOutput() != null && recipe.getRecipeOutput().getItem() != null)
                 .forEach(recipe -> craftingTableOutputs.add(ItemComponent.create(recipe.getRecipeOutput())));
 
-        assemblingMachineOutputs = RecipeMaps.assemblerRecipes.getAllRecipes().stream()
-                .flatMap(recipe -> GregTechRecipeUtil.buildComponentsFromItemOutputs(recipe).stream())
-                .map(DisplayComponent::component).map(ItemComponent.class::cast).collect(Collectors.toSet());
-
-        assemblingLineOutputs = RecipeMaps.assemblylineVisualRecipes.getAllRecipes().stream()
-                .flatMap(recipe -> GregTechRecipeUtil.buildComponentsFromItemOutputs(recipe).stream())
-                .map(DisplayComponent::component).map(ItemComponent.class::cast).collect(Collectors.toSet());
+        assemblingMachineOutputs = getAllItemOutputs(GregTechRecipeTable.get(RecipeMaps.assemblerRecipes));
+        assemblingLineOutputs = getAllItemOutputs(GregTechRecipeTable.get(RecipeMaps.assemblylineVisualRecipes));
 
         Set<ItemComponent> allCircuits = circuitLineHandler.allCircuits();
         ListMultimap<ItemComponent, GTRecipe> circuitRecipes = MultimapBuilder.hashKeys().arrayListValues().build();
-        for (GTRecipe recipe : RecipeMaps.circuitAssemblerRecipes.getAllRecipes()) {
-            ItemComponent output = (ItemComponent) Iterables
-                    .getOnlyElement(GregTechRecipeUtil.buildComponentsFromItemOutputs(recipe)).component();
+        GregTechRecipeTable circuitAssemblerTable = GregTechRecipeTable.get(RecipeMaps.circuitAssemblerRecipes);
+        for (int i = 0; i < circuitAssemblerTable.size(); i++) {
+            ItemComponent output = Iterables.getOnlyElement(circuitAssemblerTable.itemOutputs(i));
 
             if (allCircuits.contains(output)) {
-                circuitRecipes.put(output, recipe);
+                circuitRecipes.put(output, circuitAssemblerTable.recipe(i));
             }
         }
 
@@ -68,6 +63,14 @@ class RecipeHandler {
         circuitAssemblingMachineRecipes = circuitAssemblingMachineRecipesBuilder.build();
     }
 
+    private static Set<ItemComponent> getAllItemOutputs(GregTechRecipeTable table) {
+        Set<ItemComponent> outputs = new HashSet<>();
+        for (int i = 0; i < table.size(); i++) {
+            outputs.addAll(table.itemOutputs(i));
+        }
+        return outputs;
+    }
+
     boolean hasCraftingTableRecipes(ItemComponent circuit) {
         return craftingTableOutputs.contains(circuit);
     }
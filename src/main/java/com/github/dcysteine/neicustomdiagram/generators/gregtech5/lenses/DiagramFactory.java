@@ -8,7 +8,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
-import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.ComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.PackedComponentDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.google.common.collect.Lists;
@@ -24,7 +24,7 @@ class DiagramFactory {
         this.recipeHandler = recipeHandler;
     }
 
-    void buildDiagrams(RecipeHandler.Lens lens, ComponentDiagramMatcher.Builder matcherBuilder) {
+    void buildDiagrams(RecipeHandler.Lens lens, PackedComponentDiagramMatcher.Builder matcherBuilder) {
         List<RecipeHandler.Recipe> recipes = Lists.newArrayList(recipeHandler.recipes(lens));
 
         // Sort so that lens-specific recipes are shown first.
@@ -37,7 +37,7 @@ class DiagramFactory {
         partitionedRecipes.forEach(partition -> buildDiagram(lens, matcherBuilder, partition));
     }
 
-    void buildDiagram(RecipeHandler.Lens lens, ComponentDiagramMatcher.Builder matcherBuilder,
+    void buildDiagram(RecipeHandler.Lens lens, PackedComponentDiagramMatcher.Builder matcherBuilder,
             List<RecipeHandler.Recipe> recipes) {
         Diagram.Builder diagramBuilder = Diagram.builder().addAllLayouts(layoutHandler.requiredLayouts())
                 .addAllOptionalLayouts(layoutHandler.optionalLayouts()).addInteractable(lens.colour().buildLabel());
@@ -4,7 +4,8 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
-import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.ComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.PackedComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.GenerationProfiler;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
 
@@ -36,12 +37,18 @@ public final class GregTechLenses implements DiagramGenerator {
         return info;
     }
 
+    /** Generation only reads GregTech's laser engraver recipes and ore dictionary data. */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public DiagramGroup generate() {
-        layoutHandler.initialize();
-        recipeHandler.initialize();
+        GenerationProfiler.INSTANCE.profile(info, "LayoutHandler", layoutHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "RecipeHandler", recipeHandler::initialize);
 
-        ComponentDiagramMatcher.Builder matcherBuilder = ComponentDiagramMatcher.builder();
+        PackedComponentDiagramMatcher.Builder matcherBuilder = PackedComponentDiagramMatcher.builder();
         recipeHandler.allLenses().forEach(lens -> diagramFactory.buildDiagrams(lens, matcherBuilder));
 
         return new DiagramGroup(info, matcherBuilder.build());
@@ -12,6 +12,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent
 import com.github.dcysteine.neicustomdiagram.main.Logger;
 import com.github.dcysteine.neicustomdiagram.util.OreDictUtil;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeUtil;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableSet;
@@ -24,7 +25,6 @@ import com.google.common.collect.SortedSetMultimap;
 import gregtech.api.enums.OrePrefixes;
 import gregtech.api.objects.ItemData;
 import gregtech.api.recipe.RecipeMaps;
-import gregtech.api.util.GTRecipe;
 
 class RecipeHandler {
 
@@ -86,7 +86,10 @@ class RecipeHandler {
 
     /** This method must be called before any other methods are called. */
     void initialize() {
-        RecipeMaps.laserEngraverRecipes.getAllRecipes().forEach(this::handleRecipe);
+        GregTechRecipeTable table = GregTechRecipeTable.get(RecipeMaps.laserEngraverRecipes);
+        for (int i = 0; i < table.size(); i++) {
+            handleRecipe(table, i);
+        }
 
         // Check that lenses of the same colour all have the same recipes.
         for (LensColour colour : lensColours.keySet()) {
@@ -106,13 +109,12 @@ class RecipeHandler {
         }
     }
 
-    void handleRecipe(GTRecipe recipe) {
+    void handleRecipe(GregTechRecipeTable table, int index) {
         // We need to be able to mark lens-specific recipes with '*', so we can't show any recipe
         // input formatting. So use plain ItemComponent here.
         // TODO if we ever do need the recipe input formatting, we'll need to change something here.
-        List<ItemComponent> inputs = GregTechRecipeUtil.buildComponentsFromItemInputs(recipe).stream()
-                .map(DisplayComponent::component).map(ItemComponent.class::cast).collect(Collectors.toList());
-        List<DisplayComponent> outputs = GregTechRecipeUtil.buildComponentsFromItemOutputs(recipe);
+        List<ItemComponent> inputs = table.itemInputs(index);
+        List<DisplayComponent> outputs = GregTechRecipeUtil.buildComponentsFromItemOutputs(table.recipe(index));
 
         if (inputs.size() != 2 || outputs.size() != 1) {
             Logger.GREGTECH_5_LENSES.warn("Found a malformed recipe: [{}] [{}]", inputs, outputs);
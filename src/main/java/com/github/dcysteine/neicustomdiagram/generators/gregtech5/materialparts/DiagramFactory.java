@@ -9,7 +9,6 @@ import java.util.Optional;
 
 import javax.annotation.Nullable;
 
-import net.minecraft.item.ItemStack;
 import net.minecraftforge.fluids.FluidStack;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
@@ -27,6 +26,7 @@ import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechDiagramUtil;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechFluidDictUtil;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
 import com.google.common.collect.ImmutableList;
 
 import gregtech.api.enums.ItemList;
@@ -35,7 +35,6 @@ import gregtech.api.enums.OrePrefixes;
 import gregtech.api.objects.ItemData;
 import gregtech.api.recipe.RecipeMaps;
 import gregtech.api.util.GTOreDictUnificator;
-import gregtech.api.util.GTRecipe;
 
 class DiagramFactory {
 
@@ -114,14 +113,15 @@ class DiagramFactory {
     }
 
     void initialize() {
-        for (GTRecipe ebfRecipe : RecipeMaps.blastFurnaceRecipes.getAllRecipes()) {
-            for (ItemStack output : ebfRecipe.mOutputs) {
-                ItemData outData = GTOreDictUnificator.getAssociation(output);
+        GregTechRecipeTable table = GregTechRecipeTable.get(RecipeMaps.blastFurnaceRecipes);
+        for (int i = 0; i < table.size(); i++) {
+            for (ItemComponent output : table.itemOutputs(i)) {
+                ItemData outData = GTOreDictUnificator.getAssociation(output.stack());
                 if ((outData != null) && outData.hasValidMaterialData()
                         && outData.hasValidPrefixData()
                         && (outData.mPrefix == OrePrefixes.ingot || outData.mPrefix == OrePrefixes.ingotHot)) {
                     Materials mat = outData.mMaterial.mMaterial;
-                    int recipeHeat = ebfRecipe.mSpecialValue;
+                    int recipeHeat = table.specialValue(i);
                     materialEbfHeatMap.compute(
                             mat,
                             (m, oldHeat) -> (oldHeat == null) ? recipeHeat : Math.min(recipeHeat, oldHeat));
@@ -13,6 +13,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.GenerationProfiler;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.Logger;
 import com.github.dcysteine.neicustomdiagram.util.DiagramUtil;
@@ -64,12 +65,18 @@ public final class GregTechMaterialParts implements DiagramGenerator {
         return info;
     }
 
+    /** Generation only reads GregTech's materials and their ore dictionary associations. */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public DiagramGroup generate() {
-        layoutHandler.initialize();
-        heatingCoilHandler.initialize();
-        relatedMaterialsHandler.initialize();
-        diagramFactory.initialize();
+        GenerationProfiler.INSTANCE.profile(info, "LayoutHandler", layoutHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "HeatingCoilHandler", heatingCoilHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "RelatedMaterialsHandler", relatedMaterialsHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "DiagramFactory", diagramFactory::initialize);
 
         ImmutableBiMap.Builder<Materials, Diagram> materialsMapBuilder = ImmutableBiMap.builder();
         for (Materials material : Materials.getAll()) {
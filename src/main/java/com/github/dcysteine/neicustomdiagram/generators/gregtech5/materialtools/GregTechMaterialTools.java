@@ -13,6 +13,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.GenerationProfiler;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.Logger;
 import com.github.dcysteine.neicustomdiagram.util.DiagramUtil;
@@ -63,10 +64,16 @@ public final class GregTechMaterialTools implements DiagramGenerator {
         return info;
     }
 
+    /** Generation only reads GregTech's materials, tool recipes and ore dictionary data. */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public DiagramGroup generate() {
-        layoutHandler.initialize();
-        recipeHandler.initialize();
+        GenerationProfiler.INSTANCE.profile(info, "LayoutHandler", layoutHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "RecipeHandler", recipeHandler::initialize);
 
         ImmutableBiMap.Builder<Materials, Diagram> materialsMapBuilder = ImmutableBiMap.builder();
         for (Materials material : Materials.getAll()) {
@@ -17,7 +17,9 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.Registry;
+import com.github.dcysteine.neicustomdiagram.main.SourceTracker;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechFormatting;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedSet;
@@ -162,9 +164,15 @@ class RecipeHandler {
     @SuppressWarnings("unchecked")
     void initialize() {
         // First pass: find all tools with recipes, and group them by base NBT item stack.
+        SourceTracker.INSTANCE.recordRead(SourceTracker.CRAFTING_RECIPES);
         ((List<IRecipe>) CraftingManager.getInstance().getRecipeList())
                 .forEach(recipe -> addTool(recipe.getRecipeOutput()));
-        RecipeMaps.assemblerRecipes.getAllRecipes().forEach(recipe -> addTool(recipe.getOutput(0)));
+        GregTechRecipeTable assemblerTable = GregTechRecipeTable.get(RecipeMaps.assemblerRecipes);
+        for (int i = 0; i < assemblerTable.size(); i++) {
+            if (assemblerTable.itemOutputCount(i) > 0) {
+                addTool(assemblerTable.itemOutputs(i).get(0).stack());
+            }
+        }
 
         // Second pass: iterate through and construct DisplayComponents for found tools.
         // We iterate on SortedSet copies so that the resulting lists of tools are ordered.
@@ -16,9 +16,11 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Grid;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Layout;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.SlotGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Text;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CachingDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.github.dcysteine.neicustomdiagram.main.config.DiagramGroupVisibility;
 import com.github.dcysteine.neicustomdiagram.util.ComponentTransformer;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechFormatting;
@@ -62,7 +64,11 @@ public final class GregTechOreDictionary implements DiagramGenerator {
 
     @Override
     public DiagramGroup generate() {
-        return new DiagramGroup(info, new CustomDiagramMatcher(GregTechOreDictionary::generateDiagrams));
+        return new DiagramGroup(
+                info,
+                new CachingDiagramMatcher(
+                        new CustomDiagramMatcher(GregTechOreDictionary::generateDiagrams),
+                        ConfigOptions.DYNAMIC_DIAGRAM_CACHE_SIZE.get()));
     }
 
     private static Collection<Diagram> generateDiagrams(Interactable.RecipeType recipeType, Component component) {
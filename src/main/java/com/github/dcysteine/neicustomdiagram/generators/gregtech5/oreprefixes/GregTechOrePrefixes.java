@@ -66,6 +66,12 @@ public final class GregTechOrePrefixes implements DiagramGenerator {
         return info;
     }
 
+    /** Generation only reads GregTech's materials and the ore dictionary. */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public DiagramGroup generate() {
         ImmutableBiMap.Builder<Materials, Diagram> materialsMapBuilder = ImmutableBiMap.builder();
@@ -11,7 +11,8 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
-import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.ComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.PackedComponentDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.GenerationProfiler;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.Logger;
 import com.github.dcysteine.neicustomdiagram.main.Registry;
@@ -71,13 +72,19 @@ public final class GregTechOreProcessing implements DiagramGenerator {
         return info;
     }
 
+    /** Generation only reads recipe maps, the ore dictionary, and the BartWorks and GT++ material lists. */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public DiagramGroup generate() {
-        labelHandler.initialize();
-        layoutHandler.initialize();
-        recipeHandler.initialize();
+        GenerationProfiler.INSTANCE.profile(info, "LabelHandler", labelHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "LayoutHandler", layoutHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "RecipeHandler", recipeHandler::initialize);
 
-        ComponentDiagramMatcher.Builder matcherBuilder = ComponentDiagramMatcher.builder();
+        PackedComponentDiagramMatcher.Builder matcherBuilder = PackedComponentDiagramMatcher.builder();
 
         for (Materials material : Materials.getAll()) {
             if (!material.hasOresItems()) continue;
@@ -132,7 +139,7 @@ public final class GregTechOreProcessing implements DiagramGenerator {
         return new DiagramGroup(info, matcherBuilder.build());
     }
 
-    private void buildDiagram(ComponentDiagramMatcher.Builder matcherBuilder, List<ItemComponent> rawOres,
+    private void buildDiagram(PackedComponentDiagramMatcher.Builder matcherBuilder, List<ItemComponent> rawOres,
             Optional<ItemComponent> trueRawOre) {
         DiagramBuilder diagramBuilder = new DiagramBuilder(
                 layoutHandler,
@@ -17,6 +17,7 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayCompon
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
 import com.github.dcysteine.neicustomdiagram.main.Logger;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeUtil;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
@@ -29,7 +30,6 @@ import com.google.common.collect.SetMultimap;
 import gregtech.api.enums.Materials;
 import gregtech.api.recipe.RecipeMap;
 import gregtech.api.recipe.RecipeMaps;
-import gregtech.api.util.GTOreDictUnificator;
 import gregtech.api.util.GTRecipe;
 import gregtech.api.util.GTUtility;
 
@@ -142,21 +142,23 @@ class RecipeHandler {
                     .hashSetValues().build();
             recipeData.put(recipeMap, multimap);
 
-            for (GTRecipe recipe : recipeMap.recipeMap.getAllRecipes()) {
+            GregTechRecipeTable table = GregTechRecipeTable.get(recipeMap.recipeMap);
+            for (int i = 0; i < table.size(); i++) {
+                GTRecipe recipe = table.recipe(i);
                 ImmutableList<DisplayComponent> outputs = ImmutableList
                         .copyOf(GregTechRecipeUtil.buildComponentsFromOutputs(recipe));
 
                 Optional<ChemicalBathFluid> chemicalBathFluidOptional = Optional.empty();
                 int inputFluidAmount = 0;
                 if (recipeMap == RecipeMap.CHEMICAL_BATH) {
-                    List<DisplayComponent> fluidInputs = GregTechRecipeUtil.buildComponents(recipe.mFluidInputs);
+                    List<DisplayComponent> fluidInputs = GregTechRecipeUtil.buildComponentsFromFluidInputs(recipe);
 
                     if (fluidInputs.size() != 1) {
                         Logger.GREGTECH_5_ORE_PROCESSING.warn(
                                 "Found chemical bath recipe with {} fluids:\n[{}]\n ->\n[{}]",
                                 fluidInputs.size(),
                                 GregTechRecipeUtil.buildComponentsFromInputs(recipe),
-                                GregTechRecipeUtil.buildComponentsFromOutputs(recipe));
+                                outputs);
                     } else {
                         DisplayComponent inputFluid = Iterables.getOnlyElement(fluidInputs);
 
@@ -168,17 +170,13 @@ class RecipeHandler {
                             Logger.GREGTECH_5_ORE_PROCESSING.warn(
                                     "Found chemical bath recipe missing input fluid stack size:\n[{}]\n ->\n[{}]",
                                     GregTechRecipeUtil.buildComponentsFromInputs(recipe),
-                                    GregTechRecipeUtil.buildComponentsFromOutputs(recipe));
+                                    outputs);
                         }
                     }
                 }
 
-                for (ItemStack itemStack : recipe.mInputs) {
-                    if (itemStack == null) {
-                        continue;
-                    }
-
-                    ItemComponent itemComponent = ItemComponent.create(GTOreDictUnificator.get_nocopy(itemStack));
+                for (ItemComponent unifiedInput : table.unifiedItemInputs(i)) {
+                    ItemComponent itemComponent = unifiedInput.withoutNbt();
                     multimap.put(itemComponent, outputs);
 
                     // Need an effectively final variable here so that we can reference it within
@@ -1,8 +1,11 @@
 package com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugger;
 
-import java.util.ArrayList;
+import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
@@ -14,63 +17,77 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.api.draw.Draw;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.util.ComponentTransformer;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.MultimapBuilder;
+import com.google.common.math.IntMath;
 
 class DiagramHandler {
 
     private final DiagramGroupInfo info;
     private final LayoutFactory layoutFactory;
-    private final RecipeHandler recipeHandler;
 
-    private final ListMultimap<GregTechRecipeDebugger.View, Diagram> diagramListMultimap;
+    /**
+     * Diagrams are only built when a view is first opened, as most views are never opened in most sessions, and some
+     * views can have thousands of diagrams.
+     *
+     * <p>
+     * The suppliers must not reference the {@link RecipeHandler}, as it holds the pass 1 recipe data for every recipe
+     * map, which is only needed while generating. Each supplier holds only its own copy of its view's recipes.
+     */
+    private final EnumMap<GregTechRecipeDebugger.View, Supplier<List<Diagram>>> diagramSuppliers;
+    /** Map of view to the number of diagrams that it will have, so that the menu doesn't need to build them. */
+    private final EnumMap<GregTechRecipeDebugger.View, Integer> diagramCounts;
     private Diagram menuDiagram;
 
-    DiagramHandler(DiagramGroupInfo info, LayoutFactory layoutFactory, RecipeHandler recipeHandler) {
+    DiagramHandler(DiagramGroupInfo info, LayoutFactory layoutFactory) {
         this.info = info;
         this.layoutFactory = layoutFactory;
-        this.recipeHandler = recipeHandler;
 
-        this.diagramListMultimap = MultimapBuilder.enumKeys(GregTechRecipeDebugger.View.class).arrayListValues()
-                .build();
+        this.diagramSuppliers = new EnumMap<>(GregTechRecipeDebugger.View.class);
+        this.diagramCounts = new EnumMap<>(GregTechRecipeDebugger.View.class);
     }
 
-    /** This method must be called before any other methods are called. */
-    void initialize() {
-        diagramListMultimap.put(GregTechRecipeDebugger.View.PROGRAMMED_CIRCUITS, buildProgrammedCircuitsDiagram());
-        diagramListMultimap.putAll(
-                GregTechRecipeDebugger.View.CONSUME_CIRCUIT_RECIPES,
-                buildRecipeDiagrams(recipeHandler.consumeCircuitRecipes));
-        diagramListMultimap.putAll(
-                GregTechRecipeDebugger.View.UNNECESSARY_CIRCUIT_RECIPES,
-                buildRecipeDiagrams(recipeHandler.unnecessaryCircuitRecipes));
-        diagramListMultimap.putAll(
-                GregTechRecipeDebugger.View.COLLIDING_RECIPES,
-                buildRecipeDiagrams(ImmutableList.copyOf(recipeHandler.collidingRecipes)));
-        diagramListMultimap
-                .putAll(GregTechRecipeDebugger.View.VOIDING_RECIPES, buildRecipeDiagrams(recipeHandler.voidingRecipes));
-        diagramListMultimap.putAll(
-                GregTechRecipeDebugger.View.UNEQUAL_CELL_RECIPES,
-                buildRecipeDiagrams(recipeHandler.unequalCellRecipes));
-        diagramListMultimap.putAll(
-                GregTechRecipeDebugger.View.SMALL_VARIANT_RECIPES,
-                buildRecipeDiagrams(recipeHandler.smallVariantRecipes));
-        diagramListMultimap.putAll(
-                GregTechRecipeDebugger.View.BAD_CRAFTING_TABLE_RECIPES,
-                buildRecipeDiagrams(recipeHandler.badCraftingTableRecipes));
-
-        // This must be last, as it reads counts from diagramListMultimap.
-        menuDiagram = buildMenuDiagram();
+    /**
+     * This method must be called before any other methods are called. {@code recipeHandler} is not retained, so that
+     * it can be garbage collected once generation is done.
+     */
+    void initialize(RecipeHandler recipeHandler) {
+        LayoutFactory layoutFactory = this.layoutFactory;
+        diagramSuppliers.put(
+                GregTechRecipeDebugger.View.PROGRAMMED_CIRCUITS,
+                Suppliers.memoize(() -> ImmutableList.of(buildProgrammedCircuitsDiagram(layoutFactory)))::get);
+        diagramCounts.put(GregTechRecipeDebugger.View.PROGRAMMED_CIRCUITS, 1);
+
+        putRecipeView(GregTechRecipeDebugger.View.CONSUME_CIRCUIT_RECIPES, recipeHandler.consumeCircuitRecipes);
+        putRecipeView(GregTechRecipeDebugger.View.UNNECESSARY_CIRCUIT_RECIPES, recipeHandler.unnecessaryCircuitRecipes);
+        putRecipeView(GregTechRecipeDebugger.View.COLLIDING_RECIPES, recipeHandler.collidingRecipes);
+        putRecipeView(GregTechRecipeDebugger.View.VOIDING_RECIPES, recipeHandler.voidingRecipes);
+        putRecipeView(GregTechRecipeDebugger.View.UNEQUAL_CELL_RECIPES, recipeHandler.unequalCellRecipes);
+        putRecipeView(GregTechRecipeDebugger.View.SMALL_VARIANT_RECIPES, recipeHandler.smallVariantRecipes);
+        putRecipeView(GregTechRecipeDebugger.View.BAD_CRAFTING_TABLE_RECIPES, recipeHandler.badCraftingTableRecipes);
+
+        // This must be last, as it reads counts from diagramCounts.
+        int recipeCount = recipeHandler.allRecipes.values().stream().mapToInt(RecipePartitioner::size).sum();
+        menuDiagram = buildMenuDiagram(recipeCount);
     }
 
     List<Diagram> getMenuDiagram() {
         return Lists.newArrayList(menuDiagram);
     }
 
+    /** Builds the diagrams for {@code view} if this is the first time that they are requested. Thread-safe. */
     List<Diagram> getDiagrams(GregTechRecipeDebugger.View view) {
-        return diagramListMultimap.get(view);
+        return diagramSuppliers.get(view).get();
+    }
+
+    private void putRecipeView(GregTechRecipeDebugger.View view, Collection<RecipeHandler.Recipe> recipeCollection) {
+        List<RecipeHandler.Recipe> recipes = ImmutableList.copyOf(recipeCollection);
+        LayoutFactory layoutFactory = this.layoutFactory;
+        diagramSuppliers.put(view, Suppliers.memoize(() -> buildRecipeDiagrams(layoutFactory, recipes))::get);
+        diagramCounts.put(
+                view,
+                IntMath.divide(recipes.size(), LayoutFactory.SlotGroupKeys.RECIPES_PER_PAGE, RoundingMode.CEILING));
     }
 
     private CustomInteractable buildViewButton(GregTechRecipeDebugger.View view) {
@@ -82,14 +99,13 @@ class DiagramHandler {
                                 .setFormatting(Tooltip.INFO_FORMATTING)
                                 .addTextLine(
                                         Lang.GREGTECH_5_RECIPE_DEBUGGER
-                                                .transf("diagramcount", diagramListMultimap.get(view).size()))
+                                                .transf("diagramcount", diagramCounts.get(view)))
                                 .build())
                 .setInteract(view.behaviorId(info)).setDrawBackground(Draw::drawRaisedSlot)
                 .setDrawOverlay(pos -> Draw.drawOverlay(pos, Draw.Colour.OVERLAY_BLUE)).build();
     }
 
-    private Diagram buildMenuDiagram() {
-        int recipeCount = recipeHandler.allRecipes.values().stream().mapToInt(RecipePartitioner::size).sum();
+    private Diagram buildMenuDiagram(int recipeCount) {
         Diagram.Builder builder = Diagram.builder().addLayout(layoutFactory.buildMenuLayout(recipeCount));
 
         Arrays.stream(GregTechRecipeDebugger.View.values())
@@ -98,7 +114,7 @@ class DiagramHandler {
         return builder.build();
     }
 
-    private Diagram buildProgrammedCircuitsDiagram() {
+    private static Diagram buildProgrammedCircuitsDiagram(LayoutFactory layoutFactory) {
         Diagram.Builder builder = Diagram.builder().addLayout(layoutFactory.buildProgrammedCircuitsLayout());
 
         List<DisplayComponent> programmedCircuits = RecipeHandler.PROGRAMMED_CIRCUITS.stream()
@@ -109,8 +125,8 @@ class DiagramHandler {
         return builder.build();
     }
 
-    private List<Diagram> buildRecipeDiagrams(List<RecipeHandler.Recipe> recipes) {
-        List<Diagram> diagrams = new ArrayList<>();
+    private static List<Diagram> buildRecipeDiagrams(LayoutFactory layoutFactory, List<RecipeHandler.Recipe> recipes) {
+        ImmutableList.Builder<Diagram> diagrams = ImmutableList.builder();
 
         List<List<RecipeHandler.Recipe>> partitionedRecipes = Lists
                 .partition(recipes, LayoutFactory.SlotGroupKeys.RECIPES_PER_PAGE);
@@ -130,6 +146,6 @@ class DiagramHandler {
             diagrams.add(builder.build());
         }
 
-        return diagrams;
+        return diagrams.build();
     }
 }
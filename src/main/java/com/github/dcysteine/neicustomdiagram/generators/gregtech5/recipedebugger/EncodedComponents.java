@@ -0,0 +1,161 @@
+package com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact encoding of a map of component to stack size, used to speed up the recipe subset checks.
+ *
+ * <p>
+ * Components are replaced by dense int IDs from a {@link Dictionary}, and stored as a sorted array, along with a
+ * parallel array of stack sizes. A 64-bit signature, with one bit set for each ID (modulo 64), lets most subset checks
+ * fail without walking the arrays at all.
+ *
+ * <p>
+ * Programmed circuits are always assigned the lowest IDs, so they form a prefix of the sorted array, and can be
+ * ignored just by skipping that prefix.
+ */
+final class EncodedComponents {
+
+    /**
+     * Assigns dense IDs to components. Not thread-safe; fill it in, then only read from it.
+     *
+     * <p>
+     * This class is generic only so that it can be tested without components.
+     */
+    static final class Dictionary<K> {
+
+        private final Map<K, Integer> ids = new HashMap<>();
+        private final int circuitCount;
+
+        /** {@code circuits} will be assigned the IDs {@code [0, circuits.size())}. */
+        Dictionary(Iterable<? extends K> circuits) {
+            circuits.forEach(this::getId);
+            this.circuitCount = ids.size();
+        }
+
+        /** Returns the ID for {@code component}, assigning a new ID if it doesn't have one yet. */
+        int getId(K component) {
+            return ids.computeIfAbsent(component, c -> ids.size());
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        EncodedComponents encode(Map<? extends K, Integer> components) {
+            long[] entries = new long[components.size()];
+            int i = 0;
+            for (Map.Entry<? extends K, Integer> entry : components.entrySet()) {
+                // Pack each entry so that sorting by ID is a plain sort.
+                entries[i++] = (long) getId(entry.getKey()) << 32 | (entry.getValue() & 0xFFFFFFFFL);
+            }
+            Arrays.sort(entries);
+
+            int[] ids = new int[entries.length];
+            int[] amounts = new int[entries.length];
+            int circuits = 0;
+            long signature = 0L;
+            long nonCircuitSignature = 0L;
+            long positiveSignature = 0L;
+            for (i = 0; i < entries.length; i++) {
+                ids[i] = (int) (entries[i] >>> 32);
+                amounts[i] = (int) entries[i];
+
+                long bit = 1L << ids[i];
+                signature |= bit;
+                if (ids[i] < circuitCount) {
+                    circuits++;
+                } else {
+                    nonCircuitSignature |= bit;
+                }
+                if (amounts[i] > 0) {
+                    positiveSignature |= bit;
+                }
+            }
+
+            return new EncodedComponents(ids, amounts, circuits, signature, nonCircuitSignature, positiveSignature);
+        }
+    }
+
+    private final int[] ids;
+    private final int[] amounts;
+    /** The number of programmed circuits, which are the first entries of {@link #ids}. */
+    private final int circuitCount;
+
+    private final long signature;
+    private final long nonCircuitSignature;
+    /** Signature of only the components with positive stack size. */
+    private final long positiveSignature;
+
+    private EncodedComponents(int[] ids, int[] amounts, int circuitCount, long signature, long nonCircuitSignature,
+            long positiveSignature) {
+        this.ids = ids;
+        this.amounts = amounts;
+        this.circuitCount = circuitCount;
+        this.signature = signature;
+        this.nonCircuitSignature = nonCircuitSignature;
+        this.positiveSignature = positiveSignature;
+    }
+
+    boolean hasCircuit() {
+        return circuitCount > 0;
+    }
+
+    /** Returns the number of programmed circuits, which are always the first IDs. */
+    int circuitCount() {
+        return circuitCount;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /** Returns the {@code i}-th ID, in sorted order. */
+    int id(int i) {
+        return ids[i];
+    }
+
+    /** Returns whether these components are a subset of {@code other}, ignoring stack sizes. */
+    boolean isSubsetOf(EncodedComponents other) {
+        return (signature & ~other.signature) == 0 && isSubsetOf(other, 0, false);
+    }
+
+    /**
+     * Returns whether these components, excluding programmed circuits, are a subset of {@code other}, ignoring stack
+     * sizes.
+     */
+    boolean isNonCircuitSubsetOf(EncodedComponents other) {
+        return (nonCircuitSignature & ~other.signature) == 0 && isSubsetOf(other, circuitCount, false);
+    }
+
+    /**
+     * Returns whether these components are a subset of {@code other}, checking stack sizes. Components with stack size
+     * zero or less are treated as always present.
+     */
+    boolean isSubsetOfComparingStackSizes(EncodedComponents other) {
+        return (positiveSignature & ~other.signature) == 0 && isSubsetOf(other, 0, true);
+    }
+
+    /** Merge walk over the two sorted ID arrays, starting from index {@code from} of {@link #ids}. */
+    private boolean isSubsetOf(EncodedComponents other, int from, boolean compareStackSizes) {
+        int j = 0;
+        for (int i = from; i < ids.length; i++) {
+            while (j < other.ids.length && other.ids[j] < ids[i]) {
+                j++;
+            }
+
+            int otherAmount = j < other.ids.length && other.ids[j] == ids[i] ? other.amounts[j] : 0;
+            if (compareStackSizes) {
+                if (otherAmount < amounts[i]) {
+                    return false;
+                }
+            } else if (j == other.ids.length || other.ids[j] != ids[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -3,10 +3,12 @@ package com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugge
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
+import net.minecraft.nbt.NBTTagCompound;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.CustomDiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
@@ -14,9 +16,11 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
-import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
 import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.GenerationProfiler;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
+import com.github.dcysteine.neicustomdiagram.main.Logger;
+import com.github.dcysteine.neicustomdiagram.main.RecipeCheckCache;
 import com.github.dcysteine.neicustomdiagram.main.config.DiagramGroupVisibility;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
 import com.google.common.collect.ImmutableMap;
@@ -83,8 +87,6 @@ public final class GregTechRecipeDebugger implements DiagramGenerator {
 
     private final LabelHandler labelHandler;
     private final LayoutFactory layoutFactory;
-    private final RecipeHandler recipeHandler;
-    private final DiagramHandler diagramHandler;
 
     public GregTechRecipeDebugger(String groupId) {
         this.info = DiagramGroupInfo.builder(Lang.GREGTECH_5_RECIPE_DEBUGGER.trans("groupname"), groupId, ICON, 1)
@@ -97,8 +99,6 @@ public final class GregTechRecipeDebugger implements DiagramGenerator {
 
         this.labelHandler = new LabelHandler();
         this.layoutFactory = new LayoutFactory(this.info, this.labelHandler);
-        this.recipeHandler = new RecipeHandler();
-        this.diagramHandler = new DiagramHandler(this.info, this.layoutFactory, this.recipeHandler);
     }
 
     @Override
@@ -106,12 +106,36 @@ public final class GregTechRecipeDebugger implements DiagramGenerator {
         return info;
     }
 
+    /**
+     * Generation only reads recipe maps and crafting table recipes. Capsule cells, which are checked through other
+     * mods' item code, are counted sequentially in the first pass, never from the parallel second pass. Its only text
+     * label, on the menu diagram, is measured when first drawn.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public CustomDiagramGroup generate() {
-        labelHandler.initialize();
-        layoutFactory.initialize();
-        recipeHandler.initialize();
-        diagramHandler.initialize();
+        // A fresh recipe handler for each generation, so that regenerating doesn't add to the previous results, and so
+        // that the pass 1 recipe data can be garbage collected once we're done.
+        RecipeHandler recipeHandler = new RecipeHandler();
+        DiagramHandler diagramHandler = new DiagramHandler(info, layoutFactory);
+
+        GenerationProfiler.INSTANCE.profile(info, "LabelHandler", labelHandler::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "LayoutFactory", layoutFactory::initialize);
+        GenerationProfiler.INSTANCE.profile(info, "RecipeHandler pass 1", recipeHandler::initializePass1);
+        Optional<NBTTagCompound> cache = RecipeCheckCache.INSTANCE.load(info);
+        if (cache.isPresent() && GenerationProfiler.INSTANCE
+                .profile(info, "RecipeHandler pass 2 (cached)", () -> recipeHandler.readPass2Cache(cache.get()))) {
+            Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Restored pass 2 results from cache.");
+        } else {
+            GenerationProfiler.INSTANCE.profile(info, "RecipeHandler pass 2", recipeHandler::initializePass2);
+            RecipeCheckCache.INSTANCE.save(info, recipeHandler.writePass2Cache());
+        }
+        GenerationProfiler.INSTANCE.profile(info, "RecipeHandler pass 3", recipeHandler::initializePass3);
+        GenerationProfiler.INSTANCE.profile(info, "DiagramHandler", () -> diagramHandler.initialize(recipeHandler));
 
         ImmutableMap.Builder<String, Supplier<Collection<Diagram>>> customBehaviorMapBuilder = ImmutableMap.builder();
         Arrays.stream(View.values()).forEach(
@@ -119,12 +143,14 @@ public final class GregTechRecipeDebugger implements DiagramGenerator {
 
         return new CustomDiagramGroup(
                 info,
-                new CustomDiagramMatcher(diagramHandler.getMenuDiagram(), this::getDiagram),
+                new CustomDiagramMatcher(
+                        diagramHandler.getMenuDiagram(),
+                        (recipeType, component) -> getDiagram(diagramHandler, component)),
                 customBehaviorMapBuilder.build());
     }
 
     /** Returns either a single-element list, or an empty list. */
-    private List<Diagram> getDiagram(Interactable.RecipeType unused, Component component) {
+    private static List<Diagram> getDiagram(DiagramHandler diagramHandler, Component component) {
         if (component.type() == Component.ComponentType.ITEM
                 && ((ItemComponent) component).item() == RecipeHandler.PROGRAMMED_CIRCUIT) {
             return diagramHandler.getDiagrams(View.PROGRAMMED_CIRCUITS);
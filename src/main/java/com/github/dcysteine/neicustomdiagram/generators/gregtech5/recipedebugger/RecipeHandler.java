@@ -1,15 +1,22 @@
 package com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugger;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -21,24 +28,31 @@ import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.item.crafting.ShapedRecipes;
 import net.minecraft.item.crafting.ShapelessRecipes;
-import net.minecraftforge.fluids.FluidStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.FluidComponent;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.ImmutableNbtWrapper;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.github.dcysteine.neicustomdiagram.main.Logger;
+import com.github.dcysteine.neicustomdiagram.main.Registry;
+import com.github.dcysteine.neicustomdiagram.main.SourceTracker;
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechOreDictUtil;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
 import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeUtil;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import codechicken.nei.NEIServerUtils;
 import gregtech.api.enums.ItemList;
@@ -46,7 +60,6 @@ import gregtech.api.enums.OrePrefixes;
 import gregtech.api.recipe.RecipeMap;
 import gregtech.api.recipe.RecipeMaps;
 import gregtech.api.util.GTModHandler;
-import gregtech.api.util.GTOreDictUnificator;
 import gregtech.api.util.GTRecipe;
 import gregtech.api.util.GTUtility;
 
@@ -81,6 +94,22 @@ class RecipeHandler {
             RecipeMap.IMPLOSION_COMPRESSOR,
             RecipeMap.ALLOY_SMELTER);
 
+    /** The number of recipes checked by each task, when running pass 2 in parallel. */
+    private static final int PASS_2_CHUNK_SIZE = 256;
+
+    /** The number of low bits used to hold the recipe index, in packed recipe IDs used for caching. */
+    private static final int CACHE_INDEX_BITS = 24;
+    private static final String CACHE_SIZES_KEY = "sizes";
+    private static final String CACHE_HASHES_KEY = "hashes";
+    /** Keys for each of the pass 2 recipe lists, in the order that they are stored. */
+    private static final ImmutableList<String> CACHE_LIST_KEYS = ImmutableList.of(
+            "consumeCircuit",
+            "unnecessaryCircuit",
+            "colliding",
+            "voiding",
+            "unequalCell",
+            "smallVariant");
+
     enum RecipeMap {
 
         /**
@@ -113,10 +142,8 @@ class RecipeHandler {
         PRECISION_LASER_ENGRAVER(RecipeMaps.laserEngraverRecipes, ItemList.Machine_HV_LaserEngraver,
                 "precisionlaserengraverlabel"),
         MIXER(RecipeMaps.mixerRecipes, ItemList.Machine_HV_Mixer, "mixerlabel"),
-        /*
-         * TODO I think this is the multiblock mixer, from GT++? MIXER_NON_CELL(RecipeMaps.mixerNonCellRecipes,
-         * ItemList.Machine_HV_Mixer, "mixerlabel"),
-         */
+        /** Multiblock mixer. */
+        MIXER_NON_CELL(RecipeMaps.mixerNonCellRecipes, ItemList.Machine_HV_Mixer, "mixerlabel"),
         AUTOCLAVE(RecipeMaps.autoclaveRecipes, ItemList.Machine_HV_Autoclave, "autoclavelabel"),
         ELECTROMAGNETIC_SEPARATOR(RecipeMaps.electroMagneticSeparatorRecipes,
                 ItemList.Machine_HV_ElectromagneticSeparator, "electromagneticseparatorlabel"),
@@ -128,26 +155,25 @@ class RecipeHandler {
         DISTILLERY(RecipeMaps.distilleryRecipes, ItemList.Machine_HV_Distillery, "distillerylabel"),
         FERMENTER(RecipeMaps.fermentingRecipes, ItemList.Machine_HV_Fermenter, "fermenterlabel"),
 
-        /*
-         * Fluid Solidifier Be warned: this thing has way too many recipes (~46k), and they all have similar components!
-         * Expect extreme slow-down if you want to add it. FLUID_SOLIDIFIER(RecipeMaps.fluidSolidifierRecipes,
-         * ItemList.Machine_HV_FluidSolidifier, "fluidsolidifierlabel"),
+        /**
+         * This recipe map is huge (~46k recipes), and its recipes mostly share the same few molds. The inverted index
+         * in {@link RecipeIndex} keeps it fast to check anyway.
          */
+        FLUID_SOLIDIFIER(RecipeMaps.fluidSolidifierRecipes, ItemList.Machine_HV_FluidSolidifier,
+                "fluidsolidifierlabel"),
 
         FLUID_EXTRACTOR(RecipeMaps.fluidExtractionRecipes, ItemList.Machine_HV_FluidExtractor, "fluidextractorlabel"),
         PACKAGER(RecipeMaps.packagerRecipes, ItemList.Machine_HV_Boxinator, "packagerlabel"),
         UNPACKAGER(RecipeMaps.unpackagerRecipes, ItemList.Machine_HV_Unboxinator, "unpackagerlabel"),
         FUSION_REACTOR(RecipeMaps.fusionRecipes, ItemList.FusionComputer_LuV, "fusionreactorlabel"),
         CENTRIFUGE(RecipeMaps.centrifugeRecipes, ItemList.Machine_HV_Centrifuge, "centrifugelabel"),
-        /*
-         * TODO I think this is the multiblock centrifuge, from GT++? CENTRIFUGE_NON_CELL(
-         * RecipeMaps.centrifugeNonCellRecipes, ItemList.Machine_HV_Centrifuge, "centrifugelabel"),
-         */
+        /** Multiblock centrifuge. */
+        CENTRIFUGE_NON_CELL(RecipeMaps.centrifugeNonCellRecipes, ItemList.Machine_HV_Centrifuge,
+                "centrifugelabel"),
         ELECTROLYZER(RecipeMaps.electrolyzerRecipes, ItemList.Machine_HV_Electrolyzer, "electrolyzerlabel"),
-        /*
-         * TODO I think this is the multiblock electrolyzer, from GT++? ELECTROLYZER_NON_CELL(
-         * RecipeMaps.electrolyzerNonCellRecipes, ItemList.Machine_HV_Electrolyzer, "electrolyzerlabel"),
-         */
+        /** Multiblock electrolyzer. */
+        ELECTROLYZER_NON_CELL(RecipeMaps.electrolyzerNonCellRecipes, ItemList.Machine_HV_Electrolyzer,
+                "electrolyzerlabel"),
         ELECTRIC_BLAST_FURNACE(RecipeMaps.blastFurnaceRecipes, ItemList.Machine_Multi_BlastFurnace,
                 "electricblastfurnacelabel"),
         PLASMA_FORGE(RecipeMaps.plasmaForgeRecipes, ItemList.Machine_Multi_PlasmaForge, "plasmaforgelabel"),
@@ -178,7 +204,6 @@ class RecipeHandler {
         EXTRUDER(RecipeMaps.extruderRecipes, ItemList.Machine_HV_Extruder, "extruderlabel"),
         FORGE_HAMMER(RecipeMaps.hammerRecipes, ItemList.Machine_HV_Hammer, "forgehammerlabel"),
         // Amplifabricator, Mass Fabrication, fuels
-        // Multiblock Electrolyzer, Multiblock Centrifuge, Multiblock Mixer
         NANO_FORGE(RecipeMaps.nanoForgeRecipes, ItemList.NanoForge, "nanoforgelabel"),
         PCB_FACTORY(RecipeMaps.pcbFactoryRecipes, ItemList.PCBFactory, "pcbfactory"),;
 
@@ -198,43 +223,46 @@ class RecipeHandler {
     @AutoValue
     abstract static class Recipe {
 
-        static Recipe create(RecipeMap recipeMap, GTRecipe recipe) {
+        /** {@code cellCounter} returns the number of capsule cells in a map of component to stack size. */
+        static Recipe create(RecipeMap recipeMap, GregTechRecipeTable table, int index,
+                ToIntFunction<Map<Component, Integer>> cellCounter) {
             Map<Component, Integer> inputs = new HashMap<>();
-            for (ItemStack itemStack : recipe.mInputs) {
-                if (itemStack == null) {
-                    continue;
-                }
-                ItemStack unified = GTOreDictUnificator.get_nocopy(itemStack);
-                inputs.merge(ItemComponent.createWithNbt(unified), itemStack.stackSize, Integer::sum);
+            for (int i = 0; i < table.itemInputCount(index); i++) {
+                inputs.merge(
+                        table.component(table.unifiedItemInputId(index, i)),
+                        table.itemInputAmount(index, i),
+                        Integer::sum);
             }
-            for (FluidStack fluidStack : recipe.mFluidInputs) {
-                if (fluidStack == null) {
-                    continue;
-                }
-                inputs.merge(FluidComponent.createWithNbt(fluidStack), fluidStack.amount, Integer::sum);
+            for (int i = 0; i < table.fluidInputCount(index); i++) {
+                inputs.merge(
+                        table.component(table.fluidInputId(index, i)),
+                        table.fluidInputAmount(index, i),
+                        Integer::sum);
             }
 
             Map<Component, Integer> outputs = new HashMap<>();
-            for (ItemStack itemStack : recipe.mOutputs) {
-                if (itemStack == null) {
-                    continue;
-                }
-                ItemStack unified = GTOreDictUnificator.get_nocopy(itemStack);
-                outputs.merge(ItemComponent.createWithNbt(unified), itemStack.stackSize, Integer::sum);
+            for (int i = 0; i < table.itemOutputCount(index); i++) {
+                outputs.merge(
+                        table.component(table.unifiedItemOutputId(index, i)),
+                        table.itemOutputAmount(index, i),
+                        Integer::sum);
             }
-            for (FluidStack fluidStack : recipe.mFluidOutputs) {
-                if (fluidStack == null) {
-                    continue;
-                }
-                outputs.merge(FluidComponent.createWithNbt(fluidStack), fluidStack.amount, Integer::sum);
+            for (int i = 0; i < table.fluidOutputCount(index); i++) {
+                outputs.merge(
+                        table.component(table.fluidOutputId(index, i)),
+                        table.fluidOutputAmount(index, i),
+                        Integer::sum);
             }
 
+            GTRecipe recipe = table.recipe(index);
             return new AutoValue_RecipeHandler_Recipe(
                     recipeMap,
                     ImmutableMap.copyOf(inputs),
                     ImmutableMap.copyOf(outputs),
                     ImmutableList.copyOf(GregTechRecipeUtil.buildComponentsFromInputs(recipe)),
-                    ImmutableList.copyOf(GregTechRecipeUtil.buildComponentsFromOutputs(recipe)));
+                    ImmutableList.copyOf(GregTechRecipeUtil.buildComponentsFromOutputs(recipe)),
+                    cellCounter.applyAsInt(inputs),
+                    cellCounter.applyAsInt(outputs));
         }
 
         /**
@@ -319,7 +347,9 @@ class RecipeHandler {
                                 ImmutableMap.copyOf(inputs),
                                 ImmutableMap.copyOf(outputs),
                                 ImmutableList.copyOf(inputList),
-                                ImmutableList.copyOf(outputList)));
+                                ImmutableList.copyOf(outputList),
+                                0,
+                                0));
             } else {
                 return Optional.empty();
             }
@@ -336,6 +366,35 @@ class RecipeHandler {
         abstract ImmutableList<DisplayComponent> displayInputs();
 
         abstract ImmutableList<DisplayComponent> displayOutputs();
+
+        /**
+         * The number of capsule cells in {@link #inputs()}. Counting cells calls into other mods' item code, so it is
+         * done once, in the first pass, rather than in the parallel second pass.
+         */
+        abstract int inputCells();
+
+        /** The number of capsule cells in {@link #outputs()}. See {@link #inputCells()}. */
+        abstract int outputCells();
+    }
+
+    /** Thread-confined buffer for the second pass results of a range of recipes. */
+    private static final class Pass2Results {
+
+        private final List<Recipe> consumeCircuitRecipes = new ArrayList<>();
+        private final List<Recipe> unnecessaryCircuitRecipes = new ArrayList<>();
+        private final List<Set<Recipe>> collidingRecipeSets = new ArrayList<>();
+        private final List<Recipe> voidingRecipes = new ArrayList<>();
+        private final List<Recipe> unequalCellRecipes = new ArrayList<>();
+        private final List<Recipe> smallVariantRecipes = new ArrayList<>();
+
+        private void mergeInto(RecipeHandler recipeHandler) {
+            recipeHandler.consumeCircuitRecipes.addAll(consumeCircuitRecipes);
+            recipeHandler.unnecessaryCircuitRecipes.addAll(unnecessaryCircuitRecipes);
+            collidingRecipeSets.forEach(recipeHandler.collidingRecipes::addAll);
+            recipeHandler.voidingRecipes.addAll(voidingRecipes);
+            recipeHandler.unequalCellRecipes.addAll(unequalCellRecipes);
+            recipeHandler.smallVariantRecipes.addAll(smallVariantRecipes);
+        }
     }
 
     final Map<RecipeMap, RecipePartitioner> allRecipes;
@@ -347,6 +406,16 @@ class RecipeHandler {
     final List<Recipe> smallVariantRecipes;
     final List<Recipe> badCraftingTableRecipes;
 
+    /**
+     * Memoizes whether each item component is a capsule cell, as checking calls into other mods' item code. Only used
+     * in the first pass, on the generating thread.
+     */
+    private final Map<Component, Boolean> isCell;
+
+    /** Lazily computed; use {@link #getContentHashes()} instead of accessing this directly. */
+    @Nullable
+    private Map<RecipeMap, Long> contentHashes;
+
     RecipeHandler() {
         this.allRecipes = new HashMap<>();
         this.consumeCircuitRecipes = new ArrayList<>();
@@ -356,12 +425,17 @@ class RecipeHandler {
         this.unequalCellRecipes = new ArrayList<>();
         this.smallVariantRecipes = new ArrayList<>();
         this.badCraftingTableRecipes = new ArrayList<>();
+        this.isCell = new HashMap<>();
     }
 
-    /** This method must be called before any other methods are called. */
-    @SuppressWarnings("unchecked")
-    void initialize() {
-        // First pass: build recipe data.
+    /**
+     * First pass: build recipe data.
+     *
+     * <p>
+     * Initialization is split into three passes so that each can be profiled separately. All three passes must be
+     * called, in order, before any other methods are called.
+     */
+    void initializePass1() {
         for (RecipeMap recipeMap : RecipeMap.values()) {
             if (recipeMap.recipeMap == null) {
                 continue;
@@ -369,16 +443,31 @@ class RecipeHandler {
 
             Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Checking recipes, pass 1: {}", recipeMap.name());
 
+            GregTechRecipeTable table = GregTechRecipeTable.get(recipeMap.recipeMap);
             ImmutableList.Builder<Recipe> recipeListBuilder = ImmutableList.builder();
-            recipeMap.recipeMap.getAllRecipes().stream().map(recipe -> Recipe.create(recipeMap, recipe))
+            IntStream.range(0, table.size()).mapToObj(i -> Recipe.create(recipeMap, table, i, this::countCells))
                     .filter(recipe -> RecipeHandler.filterRecipes(recipeMap, recipe)).forEach(recipeListBuilder::add);
 
             RecipePartitioner recipePartitioner = new RecipePartitioner(recipeListBuilder.build());
             recipePartitioner.initialize();
             allRecipes.put(recipeMap, recipePartitioner);
         }
+    }
+
+    /**
+     * Second pass: check recipes for overlap, etc.
+     *
+     * <p>
+     * If parallel diagram generation is enabled, the checks are run in parallel; the results are the same either way.
+     * When we are already running on one of the generation worker threads, the other workers are busy generating other
+     * diagram groups, so we run the checks sequentially rather than oversubscribing the CPU with a nested pool.
+     */
+    void initializePass2() {
+        if (ConfigOptions.PARALLEL_DIAGRAM_GENERATION.get() && !Registry.isGenerationThread()) {
+            initializePass2InParallel();
+            return;
+        }
 
-        // Second pass: check recipes for overlap, etc.
         for (RecipeMap recipeMap : RecipeMap.values()) {
             if (recipeMap == RecipeMap.CRAFTING_TABLE) {
                 continue;
@@ -388,141 +477,286 @@ class RecipeHandler {
                     .info("Checking recipes, pass 2: {} [{}]", recipeMap.name(), allRecipes.get(recipeMap).size());
 
             RecipePartitioner recipePartitioner = allRecipes.get(recipeMap);
-            for (Recipe recipe : recipePartitioner.allRecipes()) {
-                Iterable<Recipe> matchingRecipes = recipePartitioner.lookup(recipe.inputs().keySet());
+            checkRecipes(recipePartitioner, 0, recipePartitioner.size()).mergeInto(this);
+        }
+    }
 
-                if (consumesCircuit(recipe)) {
-                    consumeCircuitRecipes.add(recipe);
+    /**
+     * Splits the recipes of each recipe map into chunks, and checks the chunks on a fork-join pool. Each chunk's
+     * results are buffered separately, and then merged in recipe map and chunk order, which is the order that the
+     * sequential checks would have produced.
+     */
+    private void initializePass2InParallel() {
+        int threadCount = Registry.getGenerationThreadCount();
+        Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Checking recipes, pass 2, using {} worker threads...", threadCount);
+
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            List<ForkJoinTask<Pass2Results>> tasks = new ArrayList<>();
+            for (RecipeMap recipeMap : RecipeMap.values()) {
+                if (recipeMap == RecipeMap.CRAFTING_TABLE) {
+                    continue;
                 }
 
-                if (unnecessaryCircuit(recipe, matchingRecipes)) {
-                    unnecessaryCircuitRecipes.add(recipe);
+                RecipePartitioner recipePartitioner = allRecipes.get(recipeMap);
+                for (int i = 0; i < recipePartitioner.size(); i += PASS_2_CHUNK_SIZE) {
+                    int from = i;
+                    int to = Math.min(i + PASS_2_CHUNK_SIZE, recipePartitioner.size());
+                    tasks.add(pool.submit(() -> checkRecipes(recipePartitioner, from, to)));
                 }
+            }
 
-                collidingRecipes.addAll(findCollidingRecipes(recipe, matchingRecipes));
+            tasks.forEach(task -> task.join().mergeInto(this));
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-                if (voidingRecipe(recipe)) {
-                    voidingRecipes.add(recipe);
-                }
+    /** Runs the second pass checks on the recipes in the range [{@code from}, {@code to}). */
+    private static Pass2Results checkRecipes(RecipePartitioner recipePartitioner, int from, int to) {
+        Pass2Results results = new Pass2Results();
+        RecipeIndex recipeIndex = recipePartitioner.recipeIndex();
+        for (int index = from; index < to; index++) {
+            Recipe recipe = recipePartitioner.recipe(index);
 
-                if (unequalCellRecipe(recipe)) {
-                    unequalCellRecipes.add(recipe);
-                }
+            if (consumesCircuit(recipe)) {
+                results.consumeCircuitRecipes.add(recipe);
+            }
 
-                if (smallVariantRecipe(recipe)) {
-                    smallVariantRecipes.add(recipe);
-                }
+            if (recipeIndex.unnecessaryCircuit(index)) {
+                results.unnecessaryCircuitRecipes.add(recipe);
             }
-        }
 
-        // Third pass: check for crafting table recipes with bad item stacks.
-        Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Checking crafting table recipes");
-        ((List<IRecipe>) CraftingManager.getInstance().getRecipeList()).stream().map(Recipe::createIfBadItemStack)
-                .filter(Optional::isPresent).map(Optional::get).forEach(badCraftingTableRecipes::add);
-    }
+            Set<Recipe> collidingRecipeSet = findCollidingRecipes(recipePartitioner, index);
+            if (!collidingRecipeSet.isEmpty()) {
+                results.collidingRecipeSets.add(collidingRecipeSet);
+            }
+
+            if (recipeIndex.voidingRecipe(index)) {
+                results.voidingRecipes.add(recipe);
+            }
 
-    static Set<Component> filterCircuits(Set<Component> components) {
-        return Sets.difference(components, PROGRAMMED_CIRCUITS);
+            if (unequalCellRecipe(recipe)) {
+                results.unequalCellRecipes.add(recipe);
+            }
+
+            if (smallVariantRecipe(recipe)) {
+                results.smallVariantRecipes.add(recipe);
+            }
+        }
+        return results;
     }
 
     /**
-     * There are a few bad recipes, which cause trouble for the recipe checks and are not actually valid. Filter them
-     * out here.
+     * Alternative to {@link #initializePass2()}, which restores the results of the second pass from data previously
+     * returned by {@link #writePass2Cache()}. Must be called after {@link #initializePass1()}.
      *
      * <p>
-     * Return {@code false} to filter out a recipe.
+     * Returns {@code false}, leaving this class unchanged, if the cached data does not match the recipes found in the
+     * first pass. In that case, {@link #initializePass2()} must be called instead.
      */
-    private static boolean filterRecipes(RecipeMap recipeMap, Recipe recipe) {
-        if (recipeMap == RecipeMap.CUTTING_MACHINE) {
-            // There are invalid cutting machine recipes which contain only fluids, and no items.
-            return recipe.inputs().keySet().stream()
-                    .anyMatch(component -> component.type() == Component.ComponentType.ITEM);
-        }
+    boolean readPass2Cache(NBTTagCompound cache) {
+        NBTTagCompound sizes = cache.getCompoundTag(CACHE_SIZES_KEY);
+        NBTTagCompound hashes = cache.getCompoundTag(CACHE_HASHES_KEY);
+        for (RecipeMap recipeMap : RecipeMap.values()) {
+            if (recipeMap == RecipeMap.CRAFTING_TABLE) {
+                continue;
+            }
 
-        return true;
-    }
+            if (!sizes.hasKey(recipeMap.name())
+                    || sizes.getInteger(recipeMap.name()) != allRecipes.get(recipeMap).size()) {
+                Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Cached recipe count mismatch: {}", recipeMap.name());
+                return false;
+            }
 
-    /** Returns whether {@code a} is a subset of {@code b}, ignoring stack sizes. */
-    private static boolean isSubset(Set<Component> a, Set<Component> b) {
-        return b.containsAll(a);
-    }
+            // Cached recipes are addressed by index, so the recipes must also be the same, and in the same order.
+            if (!hashes.hasKey(recipeMap.name())
+                    || hashes.getLong(recipeMap.name()) != getContentHashes().get(recipeMap)) {
+                Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Cached recipe content mismatch: {}", recipeMap.name());
+                return false;
+            }
+        }
 
-    /**
-     * Returns whether {@code a} is a subset of {@code b}, checking stack sizes.
-     */
-    private static boolean isSubsetComparingStackSizes(Map<Component, Integer> a, Map<Component, Integer> b) {
-        for (Map.Entry<Component, Integer> entry : a.entrySet()) {
-            if (b.getOrDefault(entry.getKey(), 0) < entry.getValue()) {
+        List<List<Recipe>> decodedLists = new ArrayList<>();
+        for (String key : CACHE_LIST_KEYS) {
+            Optional<List<Recipe>> decoded = decodeRecipes(cache.getIntArray(key));
+            if (!decoded.isPresent()) {
+                Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Cached recipe list is invalid: {}", key);
                 return false;
             }
+            decodedLists.add(decoded.get());
         }
 
+        consumeCircuitRecipes.addAll(decodedLists.get(0));
+        unnecessaryCircuitRecipes.addAll(decodedLists.get(1));
+        collidingRecipes.addAll(decodedLists.get(2));
+        voidingRecipes.addAll(decodedLists.get(3));
+        unequalCellRecipes.addAll(decodedLists.get(4));
+        smallVariantRecipes.addAll(decodedLists.get(5));
         return true;
     }
 
-    private static boolean consumesCircuit(Recipe recipe) {
-        for (Map.Entry<Component, Integer> entry : recipe.inputs().entrySet()) {
-            Component component = entry.getKey();
-            if (component.type() != Component.ComponentType.ITEM) {
-                continue;
+    /**
+     * Returns the results of the second pass, in a form that can be restored by
+     * {@link #readPass2Cache(NBTTagCompound)}.
+     *
+     * <p>
+     * Recipes are stored as packed (recipe map, index) pairs, rather than by value, so that the cache stays compact.
+     */
+    NBTTagCompound writePass2Cache() {
+        NBTTagCompound sizes = new NBTTagCompound();
+        NBTTagCompound hashes = new NBTTagCompound();
+        Map<Recipe, Integer> ids = new IdentityHashMap<>();
+        for (Map.Entry<RecipeMap, RecipePartitioner> entry : allRecipes.entrySet()) {
+            RecipeMap recipeMap = entry.getKey();
+            ImmutableList<Recipe> recipes = entry.getValue().allRecipes();
+            sizes.setInteger(recipeMap.name(), recipes.size());
+            hashes.setLong(recipeMap.name(), getContentHashes().get(recipeMap));
+
+            for (int i = 0; i < recipes.size(); i++) {
+                ids.put(recipes.get(i), recipeMap.ordinal() << CACHE_INDEX_BITS | i);
             }
+        }
 
-            if ((PROGRAMMED_CIRCUITS.contains(component) || SCHEMATICS.contains(component)) && entry.getValue() > 0) {
-                return true;
-            }
+        NBTTagCompound cache = new NBTTagCompound();
+        cache.setTag(CACHE_SIZES_KEY, sizes);
+        cache.setTag(CACHE_HASHES_KEY, hashes);
+        List<Collection<Recipe>> lists = ImmutableList.of(
+                consumeCircuitRecipes,
+                unnecessaryCircuitRecipes,
+                collidingRecipes,
+                voidingRecipes,
+                unequalCellRecipes,
+                smallVariantRecipes);
+        for (int i = 0; i < CACHE_LIST_KEYS.size(); i++) {
+            cache.setIntArray(CACHE_LIST_KEYS.get(i), lists.get(i).stream().mapToInt(ids::get).toArray());
         }
+        return cache;
+    }
 
-        return false;
+    private Map<RecipeMap, Long> getContentHashes() {
+        if (contentHashes == null) {
+            contentHashes = new EnumMap<>(RecipeMap.class);
+            allRecipes.forEach(
+                    (recipeMap, recipePartitioner) -> contentHashes.put(recipeMap, contentHash(recipePartitioner)));
+        }
+        return contentHashes;
     }
 
-    private static boolean unnecessaryCircuit(Recipe recipe, Iterable<Recipe> recipes) {
-        Set<Component> inputs = recipe.inputs().keySet();
-        if (inputs.stream().noneMatch(PROGRAMMED_CIRCUITS::contains)) {
-            return false;
+    /**
+     * Returns a hash of the inputs and outputs of all recipes in {@code recipePartitioner}, in order. Unlike
+     * {@code hashCode()}, this hash is stable across launches, as it uses registry names rather than object identity.
+     */
+    private static long contentHash(RecipePartitioner recipePartitioner) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (Recipe recipe : recipePartitioner.allRecipes()) {
+            hasher.putLong(contentHash(recipe.inputs())).putLong(contentHash(recipe.outputs()));
         }
+        return hasher.hash().asLong();
+    }
 
-        Set<Component> filteredInputs = filterCircuits(inputs);
-        for (Recipe otherRecipe : recipes) {
-            if (recipe == otherRecipe) {
-                continue;
+    /** The iteration order of component maps is not stable across launches, so this hash is order-independent. */
+    private static long contentHash(Map<Component, Integer> components) {
+        long hash = 0L;
+        for (Map.Entry<Component, Integer> entry : components.entrySet()) {
+            Component component = entry.getKey();
+            Hasher hasher = Hashing.murmur3_128().newHasher().putInt(component.type().ordinal());
+            switch (component.type()) {
+                case ITEM:
+                    ItemComponent itemComponent = (ItemComponent) component;
+                    hasher.putString(
+                            String.valueOf(Item.itemRegistry.getNameForObject(itemComponent.item())),
+                            StandardCharsets.UTF_8).putInt(itemComponent.damage());
+                    break;
+
+                case FLUID:
+                    hasher.putString(((FluidComponent) component).fluid().getName(), StandardCharsets.UTF_8);
+                    break;
             }
 
-            if (isSubset(filteredInputs, otherRecipe.inputs().keySet())) {
-                return false;
+            // The NBT hash code is computed from its canonical encoding, so it is stable too.
+            hasher.putInt(component.nbtWrapper().map(ImmutableNbtWrapper::hashCode).orElse(0))
+                    .putInt(entry.getValue());
+            hash += hasher.hash().asLong();
+        }
+        return hash;
+    }
+
+    private Optional<List<Recipe>> decodeRecipes(int[] ids) {
+        RecipeMap[] recipeMaps = RecipeMap.values();
+        List<Recipe> recipes = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            int ordinal = id >>> CACHE_INDEX_BITS;
+            int index = id & ((1 << CACHE_INDEX_BITS) - 1);
+            if (ordinal >= recipeMaps.length || !allRecipes.containsKey(recipeMaps[ordinal])) {
+                return Optional.empty();
             }
+
+            ImmutableList<Recipe> recipeList = allRecipes.get(recipeMaps[ordinal]).allRecipes();
+            if (index >= recipeList.size()) {
+                return Optional.empty();
+            }
+            recipes.add(recipeList.get(index));
         }
+        return Optional.of(recipes);
+    }
 
-        return true;
+    /** Third pass: check for crafting table recipes with bad item stacks. */
+    @SuppressWarnings("unchecked")
+    void initializePass3() {
+        Logger.GREGTECH_5_RECIPE_DEBUGGER.info("Checking crafting table recipes");
+        SourceTracker.INSTANCE.recordRead(SourceTracker.CRAFTING_RECIPES);
+        ((List<IRecipe>) CraftingManager.getInstance().getRecipeList()).stream().map(Recipe::createIfBadItemStack)
+                .filter(Optional::isPresent).map(Optional::get).forEach(badCraftingTableRecipes::add);
     }
 
-    // TODO this won't find cases where we have multiple identical recipes
-    // (maybe differing in recipe time or voltage or something). Do we care?
-    private static Set<Recipe> findCollidingRecipes(Recipe recipe, Iterable<Recipe> recipes) {
-        Set<Recipe> collidingRecipes = Sets.newLinkedHashSet();
-        collidingRecipes.add(recipe);
+    /**
+     * There are a few bad recipes, which cause trouble for the recipe checks and are not actually valid. Filter them
+     * out here.
+     *
+     * <p>
+     * Return {@code false} to filter out a recipe.
+     */
+    private static boolean filterRecipes(RecipeMap recipeMap, Recipe recipe) {
+        if (recipeMap == RecipeMap.CUTTING_MACHINE) {
+            // There are invalid cutting machine recipes which contain only fluids, and no items.
+            return recipe.inputs().keySet().stream()
+                    .anyMatch(component -> component.type() == Component.ComponentType.ITEM);
+        }
 
-        for (Recipe otherRecipe : recipes) {
-            if (recipe == otherRecipe) {
+        return true;
+    }
+
+    private static boolean consumesCircuit(Recipe recipe) {
+        for (Map.Entry<Component, Integer> entry : recipe.inputs().entrySet()) {
+            Component component = entry.getKey();
+            if (component.type() != Component.ComponentType.ITEM) {
                 continue;
             }
 
-            if (isSubset(recipe.inputs().keySet(), otherRecipe.inputs().keySet())) {
-                collidingRecipes.add(otherRecipe);
+            if ((PROGRAMMED_CIRCUITS.contains(component) || SCHEMATICS.contains(component)) && entry.getValue() > 0) {
+                return true;
             }
         }
 
-        if (collidingRecipes.size() > 1) {
-            return collidingRecipes;
-        } else {
+        return false;
+    }
+
+    private static Set<Recipe> findCollidingRecipes(RecipePartitioner recipePartitioner, int index) {
+        int[] collidingIndices = recipePartitioner.recipeIndex().collidingRecipes(index);
+        if (collidingIndices.length == 0) {
             return Sets.newHashSet();
         }
-    }
 
-    private static boolean voidingRecipe(Recipe recipe) {
-        return isSubsetComparingStackSizes(recipe.outputs(), recipe.inputs());
+        Set<Recipe> collidingRecipes = Sets.newLinkedHashSet();
+        collidingRecipes.add(recipePartitioner.recipe(index));
+        for (int otherIndex : collidingIndices) {
+            collidingRecipes.add(recipePartitioner.recipe(otherIndex));
+        }
+        return collidingRecipes;
     }
 
-    private static int countCells(Map<Component, Integer> componentMap) {
+    private int countCells(Map<Component, Integer> componentMap) {
         int cells = 0;
         for (Map.Entry<Component, Integer> entry : componentMap.entrySet()) {
             Component component = entry.getKey();
@@ -530,28 +764,33 @@ class RecipeHandler {
                 continue;
             }
 
-            ItemStack itemStack = ((ItemComponent) component).stack();
-            try {
-                if (GTModHandler.getCapsuleCellContainerCount(itemStack) > 0) {
-                    cells += entry.getValue();
-                }
-            } catch (NullPointerException suppressed) {
-                // EnderStorage throws NullPointerException when we try to get fluid contents.
-                // Probably because the game has not yet started, so EnderStorageManager is
-                // unavailable.
+            if (isCell.computeIfAbsent(component, RecipeHandler::checkIsCell)) {
+                cells += entry.getValue();
             }
         }
 
         return cells;
     }
 
+    private static boolean checkIsCell(Component component) {
+        ItemStack itemStack = ((ItemComponent) component).stack();
+        try {
+            return GTModHandler.getCapsuleCellContainerCount(itemStack) > 0;
+        } catch (NullPointerException suppressed) {
+            // EnderStorage throws NullPointerException when we try to get fluid contents.
+            // Probably because the game has not yet started, so EnderStorageManager is
+            // unavailable.
+            return false;
+        }
+    }
+
     private static boolean unequalCellRecipe(Recipe recipe) {
         // Prevent spamming the unequal cell recipes view with macerator recipes.
         if (recipe.recipeMap() == RecipeMap.MACERATOR) {
             return false;
         }
 
-        return countCells(recipe.inputs()) != countCells(recipe.outputs());
+        return recipe.inputCells() != recipe.outputCells();
     }
 
     private static boolean smallVariantRecipe(Recipe recipe) {
@@ -0,0 +1,178 @@
+package com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugger;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index over the encoded inputs of a list of recipes, which runs the recipe checks that compare recipes with
+ * each other.
+ *
+ * <p>
+ * For each input component ID, we store a sorted array of the indices of all recipes that have that input. A lookup
+ * intersects these posting lists, starting with the shortest one, so it only ever visits recipes that contain all of
+ * the looked up components. This keeps the checks fast even for huge recipe maps whose recipes all share a few common
+ * inputs, such as the fluid solidifier's molds.
+ *
+ * <p>
+ * Recipes are referred to by their index in the arrays passed to the constructor. This class only depends on
+ * {@link EncodedComponents}, so that it can be benchmarked without a game instance. It is immutable once constructed,
+ * and so is thread-safe.
+ */
+final class RecipeIndex {
+
+    private final EncodedComponents[] inputs;
+    private final EncodedComponents[] outputs;
+    /** Indexed by component ID; {@code null} for IDs which are not the input of any recipe. */
+    private final int[][] postingLists;
+    private final int[] allIndices;
+
+    /** All encodings must come from the same dictionary, which must have size {@code idCount}. */
+    RecipeIndex(EncodedComponents[] inputs, EncodedComponents[] outputs, int idCount) {
+        this.inputs = inputs;
+        this.outputs = outputs;
+
+        // First, count recipes per component, so that we can allocate exactly-sized posting lists.
+        int[] counts = new int[idCount];
+        for (EncodedComponents recipeInputs : inputs) {
+            for (int j = 0; j < recipeInputs.size(); j++) {
+                counts[recipeInputs.id(j)]++;
+            }
+        }
+
+        postingLists = new int[idCount][];
+        for (int id = 0; id < idCount; id++) {
+            if (counts[id] > 0) {
+                postingLists[id] = new int[counts[id]];
+            }
+        }
+
+        // Recipes are visited in order, so each posting list ends up sorted.
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < inputs.length; i++) {
+            EncodedComponents recipeInputs = inputs[i];
+            for (int j = 0; j < recipeInputs.size(); j++) {
+                int id = recipeInputs.id(j);
+                postingLists[id][counts[id]++] = i;
+            }
+        }
+
+        allIndices = IntStream.range(0, inputs.length).toArray();
+    }
+
+    int size() {
+        return inputs.length;
+    }
+
+    /**
+     * Returns the sorted indices of all recipes whose inputs contain all of the inputs of the recipe at {@code index}.
+     * The recipe at {@code index} is itself included.
+     *
+     * <p>
+     * If {@code includeCircuits} is {@code false}, programmed circuits are ignored, so recipes with a different circuit
+     * will also be returned.
+     *
+     * <p>
+     * The returned array must not be modified.
+     */
+    int[] lookup(int index, boolean includeCircuits) {
+        EncodedComponents recipeInputs = inputs[index];
+        int from = includeCircuits ? 0 : recipeInputs.circuitCount();
+        int size = recipeInputs.size() - from;
+        if (size == 0) {
+            return allIndices;
+        }
+
+        int[][] lists = new int[size][];
+        for (int i = 0; i < size; i++) {
+            lists[i] = postingLists[recipeInputs.id(from + i)];
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        // Copy the shortest posting list, as we will intersect the others into it in place.
+        int[] candidates = lists[0].clone();
+        int candidateCount = candidates.length;
+        for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+            candidateCount = intersect(candidates, candidateCount, lists[i]);
+        }
+
+        return candidateCount == candidates.length ? candidates : Arrays.copyOf(candidates, candidateCount);
+    }
+
+    /**
+     * Returns whether the recipe at {@code index} has a programmed circuit, but no other recipe has all of its other
+     * inputs, so the circuit isn't needed to tell it apart.
+     */
+    boolean unnecessaryCircuit(int index) {
+        EncodedComponents recipeInputs = inputs[index];
+        if (!recipeInputs.hasCircuit()) {
+            return false;
+        }
+
+        for (int otherIndex : lookup(index, false)) {
+            if (index == otherIndex) {
+                continue;
+            }
+
+            if (recipeInputs.isNonCircuitSubsetOf(inputs[otherIndex])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the indices of all other recipes whose inputs contain all of the inputs of the recipe at {@code index},
+     * in order. Returns an empty array if there are none.
+     */
+    // TODO this won't find cases where we have multiple identical recipes
+    // (maybe differing in recipe time or voltage or something). Do we care?
+    int[] collidingRecipes(int index) {
+        EncodedComponents recipeInputs = inputs[index];
+        // Colliding recipes must also share our programmed circuit, so include it in the lookup. For huge recipe maps,
+        // this keeps the candidate lists short.
+        int[] candidates = lookup(index, true);
+
+        int[] colliding = new int[candidates.length];
+        int count = 0;
+        for (int otherIndex : candidates) {
+            if (index == otherIndex) {
+                continue;
+            }
+
+            if (recipeInputs.isSubsetOf(inputs[otherIndex])) {
+                colliding[count++] = otherIndex;
+            }
+        }
+        return Arrays.copyOf(colliding, count);
+    }
+
+    /**
+     * Returns whether the recipe at {@code index} has inputs containing all of its outputs, in equal or more amounts.
+     */
+    boolean voidingRecipe(int index) {
+        return outputs[index].isSubsetOfComparingStackSizes(inputs[index]);
+    }
+
+    /**
+     * Intersects the first {@code count} elements of {@code candidates} with {@code postingList}, writing the result
+     * back into {@code candidates}, and returns the number of elements in the result.
+     *
+     * <p>
+     * {@code candidates} will usually be much shorter than {@code postingList}, so we binary search rather than merge.
+     */
+    private static int intersect(int[] candidates, int count, int[] postingList) {
+        int resultCount = 0;
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(postingList, from, postingList.length, candidates[i]);
+            if (index >= 0) {
+                candidates[resultCount++] = candidates[i];
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+        }
+        return resultCount;
+    }
+}
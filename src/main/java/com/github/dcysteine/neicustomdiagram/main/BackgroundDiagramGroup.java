@@ -0,0 +1,53 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Grid;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Layout;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Text;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Proxy diagram group for a diagram group that is being generated on a background thread.
+ *
+ * <p>
+ * Until the real diagram group has been published, lookups will return a single placeholder diagram showing generation
+ * progress, rather than blocking the client thread.
+ */
+class BackgroundDiagramGroup extends ProxyDiagramGroup {
+
+    /** Supplies the overall background generation progress, as a percentage. */
+    private final IntSupplier progress;
+
+    BackgroundDiagramGroup(DiagramGroupInfo info, IntSupplier progress) {
+        super(info);
+
+        this.progress = progress;
+    }
+
+    @Override
+    public DiagramGroup loadDiagrams(String id, Interactable.RecipeType recipeType, Object... stacks) {
+        Optional<DiagramGroup> delegate = delegate();
+        if (delegate.isPresent()) {
+            return delegate.get().loadDiagrams(id, recipeType, stacks);
+        }
+
+        if (isHiddenLookup(id)) {
+            return this;
+        }
+        return newInstance(ImmutableList.of(buildPlaceholderDiagram()));
+    }
+
+    private Diagram buildPlaceholderDiagram() {
+        Text text = Text.builder(
+                Lang.MAIN.transf("generatingdiagramgroup", progress.getAsInt()),
+                Grid.GRID.grid(6, 0),
+                Grid.Direction.C).build();
+        return Diagram.builder().addLayout(Layout.builder().addLabel(text).build()).build();
+    }
+}
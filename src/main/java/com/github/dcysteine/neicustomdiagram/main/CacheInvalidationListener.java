@@ -0,0 +1,31 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import net.minecraftforge.oredict.OreDictionary;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CachingDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.util.OreDictUtil;
+import com.gtnewhorizon.gtnhlib.eventbus.EventBusSubscriber;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.Side;
+
+/** Clears the caches of dynamically generated diagrams when the state they depend on changes. */
+@EventBusSubscriber(side = Side.CLIENT)
+public class CacheInvalidationListener {
+
+    @SubscribeEvent
+    @SuppressWarnings("unused")
+    public static void onOreRegister(OreDictionary.OreRegisterEvent event) {
+        OreDictUtil.invalidateCaches();
+        CachingDiagramMatcher.invalidateAll();
+    }
+
+    /**
+     * Registered with NEI's item list load callbacks. Wildcard permutations, and so the ore dictionary diagrams built
+     * from them, come from NEI's item list, so anything looked up before it finished loading is stale.
+     */
+    static void onItemListLoaded() {
+        OreDictUtil.invalidateCaches();
+        CachingDiagramMatcher.invalidateAll();
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.github.dcysteine.neicustomdiagram.api.Formatter;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Singleton class that records how long diagram generation takes.
+ *
+ * <p>
+ * Each recorded entry holds the wall time, the CPU time of the generating thread, and the number of bytes allocated by
+ * the generating thread. Entries are recorded both for whole diagram groups, and for any phases within a diagram
+ * generator that the generator chooses to profile.
+ *
+ * <p>
+ * This class is thread-safe, so that it can be used with parallel diagram generation.
+ */
+public enum GenerationProfiler {
+
+    // Singleton class; enforced by being an enum.
+    INSTANCE;
+
+    /** Used as the phase name for entries which cover an entire diagram group. */
+    public static final String TOTAL_PHASE = "total";
+
+    @AutoValue
+    public abstract static class Entry {
+
+        static Entry create(String groupId, String phase, long wallNanos, long cpuNanos, long allocatedBytes) {
+            return new AutoValue_GenerationProfiler_Entry(groupId, phase, wallNanos, cpuNanos, allocatedBytes);
+        }
+
+        public abstract String groupId();
+
+        public abstract String phase();
+
+        public abstract long wallNanos();
+
+        /** Will be {@code -1} if thread CPU time measurement is not supported by the JVM. */
+        public abstract long cpuNanos();
+
+        /** Will be {@code -1} if thread allocation measurement is not supported by the JVM. */
+        public abstract long allocatedBytes();
+
+        public boolean isTotal() {
+            return phase().equals(TOTAL_PHASE);
+        }
+
+        public long wallMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(wallNanos());
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /** Profiles an entire diagram group. */
+    public <T> T profile(DiagramGroupInfo info, Supplier<T> supplier) {
+        return profile(info, TOTAL_PHASE, supplier);
+    }
+
+    /** Profiles a single phase of diagram generation. */
+    public void profile(DiagramGroupInfo info, String phase, Runnable runnable) {
+        profile(info, phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /** Profiles a single phase of diagram generation. */
+    public <T> T profile(DiagramGroupInfo info, String phase, Supplier<T> supplier) {
+        ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+        long startCpu = getCpuNanos(threadMxBean);
+        long startAllocated = getAllocatedBytes(threadMxBean);
+        long startWall = System.nanoTime();
+
+        T result = supplier.get();
+
+        long wallNanos = System.nanoTime() - startWall;
+        long endCpu = getCpuNanos(threadMxBean);
+        long endAllocated = getAllocatedBytes(threadMxBean);
+
+        Entry entry = Entry.create(
+                info.groupId(),
+                phase,
+                wallNanos,
+                startCpu < 0 || endCpu < 0 ? -1 : endCpu - startCpu,
+                startAllocated < 0 || endAllocated < 0 ? -1 : endAllocated - startAllocated);
+        synchronized (entries) {
+            entries.add(entry);
+        }
+
+        return result;
+    }
+
+    /** Returns all recorded entries, in the order that they finished. */
+    public ImmutableList<Entry> entries() {
+        synchronized (entries) {
+            return ImmutableList.copyOf(entries);
+        }
+    }
+
+    /** Returns the most recent entry covering all of the specified diagram group, if any. */
+    public Optional<Entry> getTotal(String groupId) {
+        return entries().reverse().stream().filter(Entry::isTotal).filter(entry -> entry.groupId().equals(groupId))
+                .findFirst();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /** Logs a table of all recorded entries, sorted by descending wall time. */
+    public void logSummary() {
+        List<Entry> sortedEntries = new ArrayList<>(entries());
+        if (sortedEntries.isEmpty()) {
+            return;
+        }
+        sortedEntries.sort(Comparator.comparingLong(Entry::wallNanos).reversed());
+
+        StringBuilder builder = new StringBuilder("Diagram generation profile:");
+        builder.append(String.format("\n  %12s %12s %16s  %s", "wall (ms)", "cpu (ms)", "allocated (KB)", "phase"));
+        for (Entry entry : sortedEntries) {
+            builder.append(
+                    String.format(
+                            "\n  %12s %12s %16s  %s [%s]",
+                            Formatter.formatInteger(entry.wallMillis()),
+                            entry.cpuNanos() < 0 ? "?"
+                                    : Formatter.formatInteger(TimeUnit.NANOSECONDS.toMillis(entry.cpuNanos())),
+                            entry.allocatedBytes() < 0 ? "?" : Formatter.formatInteger(entry.allocatedBytes() / 1024),
+                            entry.groupId(),
+                            entry.phase()));
+        }
+
+        Logger.MOD.info(builder.toString());
+    }
+
+    private static long getCpuNanos(ThreadMXBean threadMxBean) {
+        if (!threadMxBean.isCurrentThreadCpuTimeSupported()) {
+            return -1;
+        }
+        return threadMxBean.getCurrentThreadCpuTime();
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threadMxBean) {
+        // This is a HotSpot extension, so it might not be available.
+        if (!(threadMxBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean sunThreadMxBean = (com.sun.management.ThreadMXBean) threadMxBean;
+        if (!sunThreadMxBean.isThreadAllocatedMemorySupported() || !sunThreadMxBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunThreadMxBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
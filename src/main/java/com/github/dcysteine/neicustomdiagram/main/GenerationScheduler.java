@@ -0,0 +1,44 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
+
+/**
+ * Decides the order in which diagram groups get generated.
+ *
+ * <p>
+ * Diagram groups listed in the {@code priority_diagram_groups} config option come first, in the order listed. The rest
+ * are ordered by how often they were opened in past sessions, most frequently opened first, and otherwise keep their
+ * order in {@link Registry}. Usage counts are only available if the {@code usage_statistics} config option is
+ * enabled; otherwise, the rest simply keep their order in {@link Registry}.
+ *
+ * <p>
+ * This only affects generation order. Diagram groups are always registered with NEI in {@link Registry} order, so that
+ * the order of the NEI tabs stays the same.
+ */
+final class GenerationScheduler {
+
+    // Static class.
+    private GenerationScheduler() {}
+
+    static List<DiagramGenerator> order(List<DiagramGenerator> generators) {
+        List<String> priorityGroupIds = ConfigOptions.PRIORITY_DIAGRAM_GROUPS.get();
+        Comparator<DiagramGenerator> comparator = Comparator.comparingInt(generator -> {
+            int index = priorityGroupIds.indexOf(generator.info().groupId());
+            return index < 0 ? Integer.MAX_VALUE : index;
+        });
+        comparator = comparator.thenComparing(
+                Comparator.comparingInt(
+                        (DiagramGenerator generator) -> UsageStatistics.INSTANCE.getCount(generator.info().groupId()))
+                        .reversed());
+
+        // List.sort() is stable, so ties keep their registry order.
+        List<DiagramGenerator> ordered = new ArrayList<>(generators);
+        ordered.sort(comparator);
+        return ordered;
+    }
+}
@@ -0,0 +1,213 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.dcysteine.neicustomdiagram.api.Formatter;
+import com.github.dcysteine.neicustomdiagram.api.diagram.Diagram;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.CustomInteractable;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.InteractiveComponentGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Layout;
+import com.github.dcysteine.neicustomdiagram.api.diagram.layout.Slot;
+import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
+import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.TooltipLine;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+/**
+ * Singleton class that estimates how much heap each generated diagram group retains.
+ *
+ * <p>
+ * Accounting walks all diagrams returned by the diagram group's matcher, and counts distinct instances of the main
+ * diagram building blocks. Instances shared between diagrams in the same group, such as common layouts, are only
+ * counted once. Byte counts are rough shallow-size estimates for a 64-bit JVM with compressed references; they do not
+ * include item stacks, NBT, or strings, which are mostly owned by other mods anyway.
+ *
+ * <p>
+ * Diagrams which are generated dynamically, or only returned via custom behavior IDs, are not accounted for.
+ *
+ * <p>
+ * This class is thread-safe, so that it can be used with parallel diagram generation.
+ */
+public enum HeapAccounting {
+
+    // Singleton class; enforced by being an enum.
+    INSTANCE;
+
+    private static final int DIAGRAM_BYTES = 64;
+    private static final int LAYOUT_BYTES = 128;
+    private static final int INTERACTIVE_COMPONENT_GROUP_BYTES = 40;
+    private static final int DISPLAY_COMPONENT_BYTES = 56;
+    private static final int TOOLTIP_BYTES = 40;
+    private static final int TOOLTIP_LINE_BYTES = 48;
+    /** The size of a single reference stored in a list or array. */
+    private static final int REFERENCE_BYTES = 4;
+
+    @AutoValue
+    public abstract static class Entry {
+
+        public abstract String groupId();
+
+        public abstract int diagrams();
+
+        public abstract int layouts();
+
+        public abstract int interactiveComponentGroups();
+
+        public abstract int displayComponents();
+
+        public abstract int tooltips();
+
+        public abstract int tooltipLines();
+
+        public abstract long estimatedBytes();
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /** Accounts for the specified diagram group, replacing any previous entry for it. */
+    public Entry account(DiagramGroup diagramGroup) {
+        Counter counter = new Counter();
+        diagramGroup.matcher().all().forEach(counter::addDiagram);
+
+        Entry entry = new AutoValue_HeapAccounting_Entry(
+                diagramGroup.info().groupId(),
+                counter.diagrams.size(),
+                counter.layouts.size(),
+                counter.interactiveComponentGroups.size(),
+                counter.displayComponents.size(),
+                counter.tooltips.size(),
+                counter.tooltipLines.size(),
+                counter.bytes);
+        synchronized (entries) {
+            entries.put(entry.groupId(), entry);
+        }
+        return entry;
+    }
+
+    /** Returns all recorded entries, in the order that they were first recorded. */
+    public ImmutableList<Entry> entries() {
+        synchronized (entries) {
+            return ImmutableList.copyOf(entries.values());
+        }
+    }
+
+    /** Logs a table of all recorded entries, sorted by descending estimated size. */
+    public void logSummary() {
+        List<Entry> sortedEntries = new ArrayList<>(entries());
+        if (sortedEntries.isEmpty()) {
+            return;
+        }
+        sortedEntries.sort(Comparator.comparingLong(Entry::estimatedBytes).reversed());
+
+        StringBuilder builder = new StringBuilder("Diagram group retained heap (estimated):");
+        builder.append(
+                String.format(
+                        "\n  %12s %10s %10s %10s %10s %10s %10s  %s",
+                        "size (KB)",
+                        "diagrams",
+                        "layouts",
+                        "groups",
+                        "components",
+                        "tooltips",
+                        "lines",
+                        "group"));
+        for (Entry entry : sortedEntries) {
+            builder.append(
+                    String.format(
+                            "\n  %12s %10s %10s %10s %10s %10s %10s  %s",
+                            Formatter.formatInteger(entry.estimatedBytes() / 1024),
+                            Formatter.formatInteger(entry.diagrams()),
+                            Formatter.formatInteger(entry.layouts()),
+                            Formatter.formatInteger(entry.interactiveComponentGroups()),
+                            Formatter.formatInteger(entry.displayComponents()),
+                            Formatter.formatInteger(entry.tooltips()),
+                            Formatter.formatInteger(entry.tooltipLines()),
+                            entry.groupId()));
+        }
+
+        Logger.MOD.info(builder.toString());
+    }
+
+    /** Helper class which walks a single diagram group. */
+    private static final class Counter {
+
+        private final Set<Diagram> diagrams = Sets.newIdentityHashSet();
+        private final Set<Layout> layouts = Sets.newIdentityHashSet();
+        private final Set<InteractiveComponentGroup> interactiveComponentGroups = Sets.newIdentityHashSet();
+        private final Set<DisplayComponent> displayComponents = Sets.newIdentityHashSet();
+        private final Set<Tooltip> tooltips = Sets.newIdentityHashSet();
+        private final Set<TooltipLine> tooltipLines = Sets.newIdentityHashSet();
+        private long bytes;
+
+        private void addDiagram(Diagram diagram) {
+            if (!diagrams.add(diagram)) {
+                return;
+            }
+            bytes += DIAGRAM_BYTES + REFERENCE_BYTES * (long) diagram.interactables().size();
+
+            addLayout(diagram.layout());
+            diagram.interactables().forEach(this::addInteractable);
+        }
+
+        private void addLayout(Layout layout) {
+            if (!layouts.add(layout)) {
+                return;
+            }
+            bytes += LAYOUT_BYTES + REFERENCE_BYTES * (long) (layout.lines().size() + layout.labels().size()
+                    + layout.interactables().size()
+                    + 2 * layout.slots().size()
+                    + 2 * layout.slotGroups().size());
+
+            layout.interactables().forEach(this::addInteractable);
+            for (Slot slot : layout.allSlots()) {
+                addTooltip(slot.tooltip());
+            }
+        }
+
+        private void addInteractable(Interactable interactable) {
+            if (interactable instanceof InteractiveComponentGroup) {
+                InteractiveComponentGroup group = (InteractiveComponentGroup) interactable;
+                if (!interactiveComponentGroups.add(group)) {
+                    return;
+                }
+                bytes += INTERACTIVE_COMPONENT_GROUP_BYTES + REFERENCE_BYTES * (long) group.components().size();
+
+                group.components().forEach(this::addDisplayComponent);
+                addTooltip(group.slotTooltip());
+            } else if (interactable instanceof CustomInteractable) {
+                addTooltip(((CustomInteractable) interactable).tooltip());
+            }
+        }
+
+        private void addDisplayComponent(DisplayComponent displayComponent) {
+            if (!displayComponents.add(displayComponent)) {
+                return;
+            }
+            bytes += DISPLAY_COMPONENT_BYTES;
+
+            addTooltip(displayComponent.additionalTooltip());
+        }
+
+        private void addTooltip(Tooltip tooltip) {
+            if (!tooltips.add(tooltip)) {
+                return;
+            }
+            bytes += TOOLTIP_BYTES + REFERENCE_BYTES * (long) tooltip.lines().size();
+
+            for (TooltipLine line : tooltip.lines()) {
+                if (tooltipLines.add(line)) {
+                    bytes += TOOLTIP_LINE_BYTES + REFERENCE_BYTES * (long) line.elements().size();
+                }
+            }
+        }
+    }
+}
@@ -7,9 +7,11 @@ public final class Lang {
 
     public static final Lang API = new Lang("neicustomdiagram.api.");
     public static final Lang UTIL = new Lang("neicustomdiagram.util.");
+    public static final Lang MAIN = new Lang("neicustomdiagram.main.");
 
     public static final Lang GREGTECH_5_UTIL = new Lang("neicustomdiagram.util.gregtech5.");
 
+    public static final Lang DEBUG_MEMORY_USAGE = new Lang("neicustomdiagram.generators.debug.memoryusage.");
     public static final Lang NBT_VIEWER = new Lang("neicustomdiagram.generators.debug.nbtviewer.");
     public static final Lang DEBUG_RULER = new Lang("neicustomdiagram.generators.debug.ruler.");
 
@@ -0,0 +1,53 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+
+/**
+ * Proxy diagram group for a diagram group that is configured to be generated lazily.
+ *
+ * <p>
+ * The real diagram group is generated the first time that this diagram group is looked up, and all lookups are then
+ * forwarded to it.
+ */
+class LazyDiagramGroup extends ProxyDiagramGroup {
+
+    /** Will be set to {@code null} once the real diagram group has been generated, to free up the generator. */
+    private Supplier<DiagramGroup> generator;
+
+    LazyDiagramGroup(DiagramGroupInfo info, Supplier<DiagramGroup> generator) {
+        super(info);
+
+        this.generator = generator;
+    }
+
+    /** Returns the real diagram group, generating it if necessary. */
+    DiagramGroup get() {
+        Optional<DiagramGroup> delegate = delegate();
+        if (delegate.isPresent()) {
+            return delegate.get();
+        }
+
+        synchronized (this) {
+            if (generator != null) {
+                publish(generator.get());
+                generator = null;
+            }
+            return delegate().get();
+        }
+    }
+
+    @Override
+    public DiagramGroup loadDiagrams(String id, Interactable.RecipeType recipeType, Object... stacks) {
+        if (isHiddenLookup(id)) {
+            // No need to generate if the diagram group would be hidden anyway.
+            return this;
+        }
+
+        return get().loadDiagrams(id, recipeType, stacks);
+    }
+}
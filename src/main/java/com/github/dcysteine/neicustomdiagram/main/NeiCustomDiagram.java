@@ -1,5 +1,6 @@
 package com.github.dcysteine.neicustomdiagram.main;
 
+import net.minecraftforge.client.ClientCommandHandler;
 import net.minecraftforge.common.MinecraftForge;
 
 import com.github.dcysteine.neicustomdiagram.main.config.Config;
@@ -66,6 +67,9 @@ public final class NeiCustomDiagram {
         if (ConfigOptions.GENERATE_DIAGRAMS_ON_CLIENT_CONNECT.get()) {
             FMLCommonHandler.instance().bus().register(this);
         }
+        if (ConfigOptions.INCREMENTAL_REGENERATION.get()) {
+            ClientCommandHandler.instance.registerCommand(new NeiCustomDiagramCommand());
+        }
 
         Logger.MOD.info("Mod initialization complete!");
     }
@@ -93,7 +97,11 @@ public final class NeiCustomDiagram {
         }
         Logger.MOD.info("Mod pre-connect starting...");
 
-        Registry.INSTANCE.generateDiagramGroups();
+        if (ConfigOptions.BACKGROUND_DIAGRAM_GENERATION.get()) {
+            Registry.INSTANCE.generateDiagramGroupsInBackground();
+        } else {
+            Registry.INSTANCE.generateDiagramGroups();
+        }
         Registry.INSTANCE.cleanUp();
         hasGenerated = true;
 
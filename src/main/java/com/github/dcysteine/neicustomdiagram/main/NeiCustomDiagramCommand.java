@@ -0,0 +1,74 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.List;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.util.ChatComponentText;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Client-side command for NEI Custom Diagram.
+ *
+ * <p>
+ * Currently, the only sub-command is {@code regenerate}, which re-generates diagram groups whose recipes have changed.
+ */
+class NeiCustomDiagramCommand extends CommandBase {
+
+    private static final String REGENERATE = "regenerate";
+
+    @Override
+    public String getCommandName() {
+        return NeiCustomDiagram.MOD_ID;
+    }
+
+    @Override
+    public String getCommandUsage(ICommandSender sender) {
+        return Lang.MAIN.trans("commandusage");
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 0;
+    }
+
+    @Override
+    public boolean canCommandSenderUseCommand(ICommandSender sender) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List addTabCompletionOptions(ICommandSender sender, String[] args) {
+        return args.length == 1 ? getListOfStringsMatchingLastWord(args, REGENERATE) : null;
+    }
+
+    @Override
+    public void processCommand(ICommandSender sender, String[] args) {
+        if (args.length != 1 || !args[0].equals(REGENERATE)) {
+            throw new WrongUsageException(getCommandUsage(sender));
+        }
+
+        if (!SourceTracker.INSTANCE.isEnabled()) {
+            sender.addChatMessage(new ChatComponentText(Lang.MAIN.trans("regenerationdisabled")));
+            return;
+        }
+
+        ImmutableList<String> groupIds;
+        try {
+            groupIds = Registry.INSTANCE.regenerateChangedDiagramGroups();
+        } catch (IllegalStateException e) {
+            sender.addChatMessage(new ChatComponentText(Lang.MAIN.trans("regenerationinprogress")));
+            return;
+        }
+
+        if (groupIds.isEmpty()) {
+            sender.addChatMessage(new ChatComponentText(Lang.MAIN.trans("regenerationnochanges")));
+        } else {
+            sender.addChatMessage(
+                    new ChatComponentText(Lang.MAIN.transf("regenerationcomplete", groupIds.size())));
+        }
+    }
+}
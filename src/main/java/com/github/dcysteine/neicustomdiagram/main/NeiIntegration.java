@@ -5,12 +5,14 @@ import java.util.Optional;
 
 import net.minecraft.client.gui.inventory.GuiContainer;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.client.event.GuiOpenEvent;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.github.dcysteine.neicustomdiagram.main.config.DiagramGroupVisibility;
 
+import codechicken.nei.ItemList;
 import codechicken.nei.event.NEIRegisterHandlerInfosEvent;
 import codechicken.nei.guihook.GuiContainerManager;
 import codechicken.nei.guihook.IContainerObjectHandler;
@@ -26,6 +28,16 @@ public enum NeiIntegration {
 
     private static class ObjectHandler implements IContainerObjectHandler {
 
+        /**
+         * The ID of the diagram group shown on the previous tick, used to count how often diagram groups are opened. We
+         * keep only the ID, so that we don't hold on to the diagram group's diagrams after the GUI is closed.
+         *
+         * <p>
+         * Reset when the recipe GUI is closed (see {@link NeiIntegration#onGuiOpen(GuiOpenEvent)}), so that re-opening
+         * the same diagram group is counted again.
+         */
+        private String lastGroupId;
+
         private static Optional<DiagramGroup> getDiagramGroup(GuiContainer guiContainer) {
             if (!(guiContainer instanceof GuiRecipe)) {
                 return Optional.empty();
@@ -40,7 +52,19 @@ public enum NeiIntegration {
         }
 
         @Override
-        public void guiTick(GuiContainer guiContainer) {}
+        public void guiTick(GuiContainer guiContainer) {
+            // This counts each time a diagram group's tab is opened or switched to. Recording only updates in-memory
+            // counts, so this is cheap enough to do on the client thread.
+            if (!UsageStatistics.INSTANCE.isEnabled()) {
+                return;
+            }
+            DiagramGroup diagramGroup = getDiagramGroup(guiContainer).orElse(null);
+            String groupId = diagramGroup == null ? null : diagramGroup.info().groupId();
+            if (groupId != null && !groupId.equals(lastGroupId) && diagramGroup.numRecipes() > 0) {
+                UsageStatistics.INSTANCE.recordOpened(groupId);
+            }
+            lastGroupId = groupId;
+        }
 
         @Override
         public void refresh(GuiContainer guiContainer) {}
@@ -80,13 +104,24 @@ public enum NeiIntegration {
         }
     }
 
+    private final ObjectHandler objectHandler = new ObjectHandler();
     private List<DiagramGroupInfo> infoList;
 
     /** This method is only intended to be called during mod initialization. */
     public void initialize(List<DiagramGroupInfo> infoList) {
         this.infoList = infoList;
 
-        GuiContainerManager.addObjectHandler(new ObjectHandler());
+        GuiContainerManager.addObjectHandler(objectHandler);
+        ItemList.loadCallbacks.add(CacheInvalidationListener::onItemListLoaded);
+    }
+
+    @SubscribeEvent
+    @SuppressWarnings("unused")
+    public void onGuiOpen(GuiOpenEvent event) {
+        if (!(event.gui instanceof GuiRecipe)) {
+            // The recipe GUI has been closed, or replaced by some other GUI.
+            objectHandler.lastGroupId = null;
+        }
     }
 
     @SubscribeEvent
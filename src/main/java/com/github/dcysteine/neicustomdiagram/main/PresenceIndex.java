@@ -0,0 +1,230 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.ComponentKeys;
+
+/**
+ * Singleton class that indexes which diagram groups can have matches for each component.
+ *
+ * <p>
+ * NEI asks every registered diagram group about every lookup, but most diagram groups have nothing for most
+ * components. Diagram groups whose matcher knows all of its matchable components ahead of time (see
+ * {@link com.github.dcysteine.neicustomdiagram.api.diagram.matcher.DiagramMatcher#forEachMatchableKey}) are indexed
+ * here, with a bitmap of diagram groups per component, so that they can skip lookups that cannot match. Diagram groups
+ * which are not indexed are always looked up.
+ *
+ * <p>
+ * Components are indexed by their key from {@link ComponentKeys}, in a primitive hash table, so that the index doesn't
+ * hold on to a component object per entry. Only the rare components which cannot be packed, such as components with
+ * NBT, are indexed by the component itself.
+ *
+ * <p>
+ * This class is thread-safe, as diagram groups may be generated on worker threads.
+ */
+public enum PresenceIndex {
+
+    // Singleton class; enforced by being an enum.
+    INSTANCE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Maps diagram group ID to the bit used for that diagram group. */
+    private final Map<String, Integer> groupBits = new HashMap<>();
+    private final BitSet indexedGroups = new BitSet();
+    private final EnumMap<Interactable.RecipeType, KeyTable> keyIndex = new EnumMap<>(Interactable.RecipeType.class);
+    private final EnumMap<Interactable.RecipeType, Map<Component, BitSet>> componentIndex = new EnumMap<>(
+            Interactable.RecipeType.class);
+
+    PresenceIndex() {
+        for (Interactable.RecipeType recipeType : Interactable.RecipeType.values()) {
+            keyIndex.put(recipeType, new KeyTable());
+            componentIndex.put(recipeType, new HashMap<>());
+        }
+    }
+
+    /**
+     * Indexes {@code diagramGroup}, replacing any previous index entries for its diagram group ID. Does nothing more if
+     * its matcher does not know its matchable components ahead of time.
+     */
+    void index(DiagramGroup diagramGroup) {
+        EnumMap<Interactable.RecipeType, long[]> matchableKeys = new EnumMap<>(Interactable.RecipeType.class);
+        EnumMap<Interactable.RecipeType, List<Component>> matchableComponents = new EnumMap<>(
+                Interactable.RecipeType.class);
+        for (Interactable.RecipeType recipeType : Interactable.RecipeType.values()) {
+            LongStream.Builder keys = LongStream.builder();
+            List<Component> components = new ArrayList<>();
+            if (!diagramGroup.matcher().forEachMatchableKey(recipeType, keys, components::add)) {
+                matchableKeys = null;
+                break;
+            }
+            matchableKeys.put(recipeType, keys.build().toArray());
+            matchableComponents.put(recipeType, components);
+        }
+
+        lock.writeLock().lock();
+        try {
+            int bit = groupBits.computeIfAbsent(diagramGroup.info().groupId(), groupId -> groupBits.size());
+            if (indexedGroups.get(bit)) {
+                // This diagram group has been re-generated, so clear out its stale entries.
+                keyIndex.values().forEach(table -> table.forEachBitSet(bitSet -> bitSet.clear(bit)));
+                componentIndex.values().forEach(map -> map.values().forEach(bitSet -> bitSet.clear(bit)));
+                indexedGroups.clear(bit);
+            }
+            if (matchableKeys == null) {
+                return;
+            }
+
+            matchableKeys.forEach(
+                    (recipeType, keys) -> {
+                        KeyTable table = keyIndex.get(recipeType);
+                        for (long key : keys) {
+                            table.getOrCreate(key).set(bit);
+                        }
+                    });
+            matchableComponents.forEach(
+                    (recipeType, components) -> {
+                        Map<Component, BitSet> map = componentIndex.get(recipeType);
+                        components.forEach(component -> map.computeIfAbsent(component, c -> new BitSet()).set(bit));
+                    });
+            indexedGroups.set(bit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns {@code false} if the specified diagram group is indexed, and cannot have matches for any of
+     * {@code components}.
+     */
+    public boolean mayMatch(String groupId, Interactable.RecipeType recipeType,
+            Collection<? extends Component> components) {
+        lock.readLock().lock();
+        try {
+            Integer bit = groupBits.get(groupId);
+            if (bit == null || !indexedGroups.get(bit)) {
+                return true;
+            }
+
+            for (Component component : components) {
+                long key = ComponentKeys.get(component);
+                BitSet bitSet;
+                if (key == ComponentKeys.UNKNOWN_KEY) {
+                    // Indexing assigns ordinals, so this component was never indexed.
+                    continue;
+                } else if (key == ComponentKeys.NO_KEY) {
+                    bitSet = componentIndex.get(recipeType).get(component);
+                } else {
+                    bitSet = keyIndex.get(recipeType).get(key);
+                }
+
+                if (bitSet != null && bitSet.get(bit)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Open-addressing hash table from component key to bitmap of diagram groups. Not thread-safe. */
+    private static final class KeyTable {
+
+        /** Marks empty slots. Never a valid key, as component keys are never negative. */
+        private static final long EMPTY_KEY = -1L;
+        private static final int INITIAL_CAPACITY = 1024;
+
+        /** The capacity is always a power of 2. */
+        private long[] keys;
+        private BitSet[] bitSets;
+        private int size;
+
+        private KeyTable() {
+            keys = new long[INITIAL_CAPACITY];
+            Arrays.fill(keys, EMPTY_KEY);
+            bitSets = new BitSet[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        /** Returns the bitmap for {@code key}, or {@code null} if there is none. */
+        private BitSet get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = ComponentKeys.hash(key) & mask;; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return bitSets[slot];
+                } else if (keys[slot] == EMPTY_KEY) {
+                    return null;
+                }
+            }
+        }
+
+        private BitSet getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = ComponentKeys.hash(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) {
+                    return bitSets[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Keep the load factor at or below 0.5, so that probe sequences stay short.
+            if (2 * (size + 1) > keys.length) {
+                resize();
+                return getOrCreate(key);
+            }
+
+            BitSet bitSet = new BitSet();
+            keys[slot] = key;
+            bitSets[slot] = bitSet;
+            size++;
+            return bitSet;
+        }
+
+        private void forEachBitSet(Consumer<BitSet> consumer) {
+            for (BitSet bitSet : bitSets) {
+                if (bitSet != null) {
+                    consumer.accept(bitSet);
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            BitSet[] oldBitSets = bitSets;
+
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY_KEY);
+            bitSets = new BitSet[oldKeys.length * 2];
+
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY_KEY) {
+                    continue;
+                }
+
+                int slot = ComponentKeys.hash(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                bitSets[slot] = oldBitSets[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.Optional;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CustomDiagramMatcher;
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Base class for lightweight diagram groups which get registered with NEI in place of a diagram group that has not been
+ * generated yet.
+ *
+ * <p>
+ * Once the real diagram group has been published, lookups should be forwarded to it. Publishing is atomic, so it is
+ * safe to publish from a worker thread.
+ */
+abstract class ProxyDiagramGroup extends DiagramGroup {
+
+    private volatile DiagramGroup delegate;
+
+    ProxyDiagramGroup(DiagramGroupInfo info) {
+        super(info, new CustomDiagramMatcher((recipeType, component) -> ImmutableList.of()));
+    }
+
+    Optional<DiagramGroup> delegate() {
+        return Optional.ofNullable(delegate);
+    }
+
+    void publish(DiagramGroup diagramGroup) {
+        // A proxy diagram group indexes its own real diagram group when that gets published. Its matcher can't be
+        // indexed, so indexing it here would clear out the real diagram group's index entries.
+        if (!(diagramGroup instanceof ProxyDiagramGroup)) {
+            PresenceIndex.INSTANCE.index(diagramGroup);
+        }
+        delegate = diagramGroup;
+    }
+
+    /** Publishes a diagram group with no diagrams, for use if generation failed. */
+    void publishEmpty() {
+        publish(new DiagramGroup(info, matcher));
+    }
+
+    /**
+     * Returns whether a lookup with the given ID would be hidden due to this diagram group's visibility, in which case
+     * there is no need to generate or forward anything.
+     */
+    boolean isHiddenLookup(String id) {
+        switch (id) {
+            case "item":
+            case "liquid":
+            case "fluid":
+                return !ConfigOptions.getDiagramGroupVisibility(info).isShown();
+
+            default:
+                return false;
+        }
+    }
+}
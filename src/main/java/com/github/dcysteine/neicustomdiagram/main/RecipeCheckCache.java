@@ -0,0 +1,234 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.github.dcysteine.neicustomdiagram.main.config.Config;
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import cpw.mods.fml.common.Loader;
+import cpw.mods.fml.common.ModContainer;
+import cpw.mods.fml.relauncher.FMLInjectionData;
+
+/**
+ * Singleton class that stores the results of the GregTech recipe debugger's recipe checks (its second pass) on disk, so
+ * that they can be re-used on the next launch.
+ *
+ * <p>
+ * This is a pass 2 result cache only, not a cache of generated diagram groups. Nothing else is cached: a warm start
+ * still reads every recipe map in full for the recipe debugger's first pass, re-hashes its recipes to validate the
+ * cached results, and generates all other diagram groups in full. Generated diagrams hold interactables, tooltips and
+ * callbacks which cannot be serialized, so caching them would need each generator to rebuild its diagrams from
+ * serialized data.
+ *
+ * <p>
+ * Each diagram group gets its own compressed NBT file. Every file records the cache format version and a fingerprint
+ * of everything that could affect generation: the loaded mods and their versions, mod config files, MineTweaker
+ * scripts, and restart-requiring config options. If either one does not match, the cached data is ignored, and the
+ * diagram group should fall back to running its checks. The cached data itself should also record enough to validate it
+ * against the current recipes, as the fingerprint cannot catch every change.
+ *
+ * <p>
+ * This class is thread-safe, so that it can be used with parallel diagram generation.
+ */
+public enum RecipeCheckCache {
+
+    // Singleton class; enforced by being an enum.
+    INSTANCE;
+
+    /** Increment this whenever the format of any cached data changes. */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String VERSION_KEY = "version";
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String DATA_KEY = "data";
+
+    private static final File MINECRAFT_DIR = (File) FMLInjectionData.data()[6];
+    private static final File CONFIG_DIR = new File(MINECRAFT_DIR, "config");
+    private static final File CACHE_DIR = new File(
+            CONFIG_DIR,
+            NeiCustomDiagram.MOD_ID + File.separator + "recipe-check-cache");
+    private static final File SCRIPTS_DIR = new File(MINECRAFT_DIR, "scripts");
+
+    /**
+     * Extensions of the files in the config directory which are fingerprinted. Other mods' configs can toggle or change
+     * recipes, but the config directory can also hold large data files, which we skip.
+     */
+    private static final ImmutableSet<String> CONFIG_FILE_EXTENSIONS = ImmutableSet
+            .of("cfg", "conf", "json", "properties", "toml", "txt", "xml");
+
+    /** Lazily computed; use {@link #getFingerprint()} instead of accessing this directly. */
+    private String fingerprint;
+
+    /**
+     * Set while re-generating diagram groups after recipes have changed at runtime, which the fingerprint would not
+     * detect.
+     */
+    private volatile boolean suspended;
+
+    public boolean isEnabled() {
+        return ConfigOptions.RECIPE_CHECK_CACHE.get() && !suspended;
+    }
+
+    void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    /**
+     * Returns the cached data for the specified diagram group, or an empty optional if there is no valid cached data.
+     */
+    public Optional<NBTTagCompound> load(DiagramGroupInfo info) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        File file = getCacheFile(info);
+        if (!file.isFile()) {
+            Logger.MOD.info("No recipe check cache found for diagram group [{}].", info.groupId());
+            return Optional.empty();
+        }
+
+        NBTTagCompound root;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            root = CompressedStreamTools.readCompressed(inputStream);
+        } catch (IOException | RuntimeException e) {
+            Logger.MOD.warn("Could not read recipe check cache for diagram group [" + info.groupId() + "]!", e);
+            return Optional.empty();
+        }
+
+        if (root.getInteger(VERSION_KEY) != FORMAT_VERSION) {
+            Logger.MOD.info("Recipe check cache format changed for diagram group [{}].", info.groupId());
+            return Optional.empty();
+        }
+        if (!root.getString(FINGERPRINT_KEY).equals(getFingerprint())) {
+            Logger.MOD.info("Recipe check cache is stale for diagram group [{}].", info.groupId());
+            return Optional.empty();
+        }
+
+        Logger.MOD.info("Loaded recipe check cache for diagram group [{}].", info.groupId());
+        return Optional.of(root.getCompoundTag(DATA_KEY));
+    }
+
+    /** Saves data to the cache for the specified diagram group, overwriting any previous data. */
+    public void save(DiagramGroupInfo info, NBTTagCompound data) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        NBTTagCompound root = new NBTTagCompound();
+        root.setInteger(VERSION_KEY, FORMAT_VERSION);
+        root.setString(FINGERPRINT_KEY, getFingerprint());
+        root.setTag(DATA_KEY, data);
+
+        File file = getCacheFile(info);
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            Files.createParentDirs(file);
+            try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                CompressedStreamTools.writeCompressed(root, outputStream);
+            }
+
+            // Write to a temp file first, so that we never leave a half-written cache file behind.
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not delete old cache file: " + file);
+            }
+            Files.move(tempFile, file);
+        } catch (IOException | RuntimeException e) {
+            Logger.MOD.warn("Could not write recipe check cache for diagram group [" + info.groupId() + "]!", e);
+            return;
+        }
+
+        Logger.MOD.info("Saved recipe check cache for diagram group [{}].", info.groupId());
+    }
+
+    private static File getCacheFile(DiagramGroupInfo info) {
+        return new File(CACHE_DIR, info.groupId() + ".dat");
+    }
+
+    private synchronized String getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = computeFingerprint();
+        }
+        return fingerprint;
+    }
+
+    private static String computeFingerprint() {
+        Hasher hasher = Hashing.sha1().newHasher();
+
+        List<ModContainer> mods = Loader.instance().getActiveModList().stream()
+                .sorted(Comparator.comparing(ModContainer::getModId)).collect(Collectors.toList());
+        for (ModContainer mod : mods) {
+            hasher.putString(mod.getModId(), StandardCharsets.UTF_8).putChar('=')
+                    .putString(mod.getVersion(), StandardCharsets.UTF_8).putChar('\n');
+        }
+
+        for (ConfigOptions.Option<?> option : ConfigOptions.getAllOptions()) {
+            if (option.requiresRestart()) {
+                hasher.putString(option.fullKey(), StandardCharsets.UTF_8).putChar('=')
+                        .putString(String.valueOf(option.get()), StandardCharsets.UTF_8).putChar('\n');
+            }
+        }
+
+        putFiles(hasher, SCRIPTS_DIR, file -> true);
+        // Our own config file is skipped, as its restart-requiring options are already covered above, and changes to
+        // its other options shouldn't invalidate the cache.
+        putFiles(
+                hasher,
+                CONFIG_DIR,
+                file -> !file.equals(Config.getConfigFile())
+                        && CONFIG_FILE_EXTENSIONS.contains(Files.getFileExtension(file.getName())));
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Recursively hashes the names and contents of all files in {@code dir} that match {@code filter}, in a stable
+     * order. The cache directory is always skipped.
+     */
+    private static void putFiles(Hasher hasher, File dir, Predicate<File> filter) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (!file.equals(CACHE_DIR)) {
+                    putFiles(hasher, file, filter);
+                }
+                continue;
+            }
+            if (!filter.test(file)) {
+                continue;
+            }
+
+            hasher.putString(file.getName(), StandardCharsets.UTF_8).putChar('\n');
+            try {
+                hasher.putBytes(Files.toByteArray(file));
+            } catch (IOException e) {
+                // If we can't read a file, then we can't tell whether it changed, so make sure the cache misses.
+                Logger.MOD.warn("Could not read file [" + file + "] for cache fingerprint!", e);
+                hasher.putLong(System.nanoTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
+import com.github.dcysteine.neicustomdiagram.api.diagram.interactable.Interactable;
+
+/**
+ * Proxy diagram group which is registered with NEI in place of the real diagram group when incremental regeneration is
+ * enabled, so that the real diagram group can be swapped out after it has been re-generated.
+ */
+class RegenerableDiagramGroup extends ProxyDiagramGroup {
+
+    RegenerableDiagramGroup(DiagramGroup diagramGroup) {
+        super(diagramGroup.info());
+
+        publish(diagramGroup);
+    }
+
+    @Override
+    public DiagramGroup loadDiagrams(String id, Interactable.RecipeType recipeType, Object... stacks) {
+        // Read the delegate only once, so that we don't see a half-swapped state.
+        return delegate().get().loadDiagrams(id, recipeType, stacks);
+    }
+}
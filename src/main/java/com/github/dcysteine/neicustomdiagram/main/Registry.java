@@ -1,12 +1,23 @@
 package com.github.dcysteine.neicustomdiagram.main;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGenerator;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroup;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
+import com.github.dcysteine.neicustomdiagram.generators.debug.memoryusage.DebugMemoryUsage;
 import com.github.dcysteine.neicustomdiagram.generators.debug.nbtviewer.NbtViewer;
 import com.github.dcysteine.neicustomdiagram.generators.debug.ruler.DebugRuler;
 import com.github.dcysteine.neicustomdiagram.generators.enderstorage.chestoverview.EnderStorageChestOverview;
@@ -23,9 +34,13 @@ import com.github.dcysteine.neicustomdiagram.generators.gregtech5.oreprocessing.
 import com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugger.GregTechRecipeDebugger;
 import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
 import com.github.dcysteine.neicustomdiagram.main.config.DiagramGroupVisibility;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeTable;
+import com.github.dcysteine.neicustomdiagram.util.gregtech5.GregTechRecipeUtil;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import codechicken.nei.api.API;
 import cpw.mods.fml.common.Loader;
@@ -42,10 +57,14 @@ public enum Registry {
 
     private static final ImmutableList<RegistryEntry> entries;
 
+    /** Set on the worker threads created by {@link #generationThreadFactory(String)}. */
+    private static final ThreadLocal<Boolean> GENERATION_THREAD = ThreadLocal.withInitial(() -> false);
+
     static {
         ImmutableList.Builder<RegistryEntry> entriesBuilder = ImmutableList.builder();
 
         // Add your diagram generator here!
+        entriesBuilder.add(RegistryEntry.create("debug.memoryusage", DebugMemoryUsage::new));
         entriesBuilder.add(RegistryEntry.create("debug.nbtviewer", NbtViewer::new));
         entriesBuilder.add(RegistryEntry.create("debug.ruler", DebugRuler::new));
         entriesBuilder.add(
@@ -166,6 +185,10 @@ public enum Registry {
     private ImmutableList<DiagramGenerator> generators;
     private ImmutableList<DiagramGroupInfo> infoList;
 
+    /** Only populated if incremental regeneration is enabled. Must only be accessed from the client thread. */
+    private final Map<String, RegenerableDiagramGroup> regenerableDiagramGroups = new LinkedHashMap<>();
+    private volatile boolean backgroundGenerationInProgress;
+
     /** This method is only intended to be called during mod initialization. */
     public void initialize() {
         Logger.MOD.info("Initializing diagram groups...");
@@ -203,6 +226,152 @@ public enum Registry {
     public void generateDiagramGroups() {
         Logger.MOD.info("Generating diagram groups...");
 
+        List<DiagramGenerator> enabledGenerators = getEnabledGenerators();
+        if (ConfigOptions.PARALLEL_DIAGRAM_GENERATION.get()) {
+            generateInParallel(enabledGenerators);
+        } else {
+            Map<DiagramGenerator, DiagramGroup> diagramGroups = new IdentityHashMap<>();
+            for (DiagramGenerator generator : GenerationScheduler.order(enabledGenerators)) {
+                diagramGroups.put(generator, generateOrDefer(generator));
+            }
+            enabledGenerators.forEach(generator -> registerDiagramGroup(diagramGroups.get(generator)));
+        }
+
+        clearGenerationCaches();
+        GenerationProfiler.INSTANCE.logSummary();
+        HeapAccounting.INSTANCE.logSummary();
+        Logger.MOD.info("Generation complete!");
+    }
+
+    /**
+     * Registers all diagram groups, but generates thread-safe diagram groups in the background rather than blocking the
+     * calling thread. Until they are done generating, these diagram groups will show a progress placeholder diagram.
+     *
+     * <p>
+     * Diagram groups are generated in the order decided by {@link GenerationScheduler}, and each one is published as
+     * soon as it is ready. If parallel generation is enabled, background generation uses the same number of worker
+     * threads; otherwise, it uses a single worker thread.
+     *
+     * <p>
+     * Diagram groups which are not thread-safe are still generated on the calling thread, before this method returns.
+     */
+    public void generateDiagramGroupsInBackground() {
+        Logger.MOD.info("Generating diagram groups in background...");
+
+        List<DiagramGenerator> enabledGenerators = getEnabledGenerators();
+        Map<DiagramGenerator, DiagramGroup> diagramGroups = new IdentityHashMap<>();
+        List<DiagramGenerator> backgroundGenerators = new ArrayList<>();
+        AtomicInteger completed = new AtomicInteger();
+        IntSupplier progress = () -> 100 * completed.get() / Math.max(1, backgroundGenerators.size());
+
+        List<DiagramGenerator> orderedGenerators = GenerationScheduler.order(enabledGenerators);
+        for (DiagramGenerator generator : orderedGenerators) {
+            if (generator.isThreadSafe() && !isLazy(generator)) {
+                diagramGroups.put(generator, new BackgroundDiagramGroup(generator.info(), progress));
+                backgroundGenerators.add(generator);
+            }
+        }
+
+        if (!backgroundGenerators.isEmpty()) {
+            backgroundGenerationInProgress = true;
+            int threadCount = ConfigOptions.PARALLEL_DIAGRAM_GENERATION.get() ? getGenerationThreadCount() : 1;
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    threadCount,
+                    generationThreadFactory(NeiCustomDiagram.MOD_NAME + " Background Generator #%d"));
+
+            for (DiagramGenerator generator : backgroundGenerators) {
+                BackgroundDiagramGroup diagramGroup = (BackgroundDiagramGroup) diagramGroups.get(generator);
+                executor.execute(() -> {
+                    try {
+                        diagramGroup.publish(generate(generator));
+                    } catch (RuntimeException e) {
+                        Logger.MOD.error(
+                                "Diagram group [" + generator.info().groupId() + "] failed to generate in background!",
+                                e);
+                        diagramGroup.publishEmpty();
+                    }
+
+                    if (completed.incrementAndGet() == backgroundGenerators.size()) {
+                        clearGenerationCaches();
+                        backgroundGenerationInProgress = false;
+                        GenerationProfiler.INSTANCE.logSummary();
+                        HeapAccounting.INSTANCE.logSummary();
+                        Logger.MOD.info("Background generation complete!");
+                    }
+                });
+            }
+            // Already-submitted tasks will still run.
+            executor.shutdown();
+        }
+
+        // Generators that are not thread-safe run here, while the background threads are busy.
+        for (DiagramGenerator generator : orderedGenerators) {
+            if (!diagramGroups.containsKey(generator)) {
+                diagramGroups.put(generator, generateOrDefer(generator));
+            }
+        }
+        enabledGenerators.forEach(generator -> registerDiagramGroup(diagramGroups.get(generator)));
+
+        if (backgroundGenerators.isEmpty()) {
+            clearGenerationCaches();
+            GenerationProfiler.INSTANCE.logSummary();
+            HeapAccounting.INSTANCE.logSummary();
+            Logger.MOD.info("Generation complete!");
+        }
+    }
+
+    /**
+     * Re-generates all diagram groups which read a recipe source that has changed since they were generated, and swaps
+     * them in place of the old diagram groups. The new diagram groups are all generated before any of them are swapped
+     * in, so NEI never sees a mix of old and new diagram groups.
+     *
+     * <p>
+     * Requires the {@code incremental_regeneration} config option to be enabled. This method must be called on the
+     * client thread, and must not be called while background generation is in progress.
+     *
+     * @return the group IDs of the diagram groups that were re-generated.
+     */
+    public ImmutableList<String> regenerateChangedDiagramGroups() {
+        if (!SourceTracker.INSTANCE.isEnabled()) {
+            throw new IllegalStateException("Incremental regeneration is not enabled!");
+        }
+        if (backgroundGenerationInProgress) {
+            throw new IllegalStateException("Background generation is still in progress!");
+        }
+
+        ImmutableSet<String> changedGroupIds = SourceTracker.INSTANCE.pollChangedDiagramGroups();
+        Logger.MOD.info("Re-generating changed diagram groups: {}", changedGroupIds);
+
+        // Recipes have changed, so make sure that we don't re-use any stale data.
+        clearGenerationCaches();
+        RecipeCheckCache.INSTANCE.setSuspended(true);
+        Map<RegenerableDiagramGroup, DiagramGroup> regenerated = new LinkedHashMap<>();
+        try {
+            for (RegistryEntry entry : entries) {
+                RegenerableDiagramGroup diagramGroup = regenerableDiagramGroups.get(entry.groupId());
+                if (diagramGroup == null || !changedGroupIds.contains(entry.groupId())) {
+                    continue;
+                }
+
+                // Use a new generator, as generators are not guaranteed to support generating more than once.
+                regenerated.put(diagramGroup, generateOrDefer(entry.get()));
+            }
+        } finally {
+            RecipeCheckCache.INSTANCE.setSuspended(false);
+            clearGenerationCaches();
+        }
+
+        regenerated.forEach(RegenerableDiagramGroup::publish);
+        GenerationProfiler.INSTANCE.logSummary();
+        Logger.MOD.info("Re-generation complete!");
+
+        return ImmutableList.copyOf(
+                regenerated.keySet().stream().map(diagramGroup -> diagramGroup.info().groupId())
+                        .collect(Collectors.toList()));
+    }
+
+    private List<DiagramGenerator> getEnabledGenerators() {
+        List<DiagramGenerator> enabledGenerators = new ArrayList<>();
         for (DiagramGenerator generator : generators) {
             DiagramGroupInfo info = generator.info();
             if (ConfigOptions.getDiagramGroupVisibility(info) == DiagramGroupVisibility.DISABLED) {
@@ -210,15 +379,143 @@ public enum Registry {
                 continue;
             }
 
-            // TODO display time elapsed?
-            Logger.MOD.info("Generating diagram group [{}]...", info.groupId());
-            DiagramGroup diagramGroup = generator.generate();
-            API.registerRecipeHandler(diagramGroup);
-            API.registerUsageHandler(diagramGroup);
-            Logger.MOD.info("Generated diagram group [{}]!", info.groupId());
+            enabledGenerators.add(generator);
+        }
+        return enabledGenerators;
+    }
+
+    /**
+     * Generates thread-safe diagram groups on a bounded pool of worker threads, and all other diagram groups on the
+     * calling thread. Lazily-generated diagram groups are skipped, as they will be generated on first lookup instead.
+     *
+     * <p>
+     * Generation is started in the order decided by {@link GenerationScheduler}, but registration with NEI always
+     * happens on the calling thread, in registry order.
+     */
+    private void generateInParallel(List<DiagramGenerator> enabledGenerators) {
+        int threadCount = getGenerationThreadCount();
+        Logger.MOD.info("Generating diagram groups in parallel, using {} worker threads...", threadCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                threadCount,
+                generationThreadFactory(NeiCustomDiagram.MOD_NAME + " Generator #%d"));
+        try {
+            List<DiagramGenerator> orderedGenerators = GenerationScheduler.order(enabledGenerators);
+            Map<DiagramGenerator, Future<DiagramGroup>> futures = new IdentityHashMap<>();
+            for (DiagramGenerator generator : orderedGenerators) {
+                if (generator.isThreadSafe() && !isLazy(generator)) {
+                    futures.put(generator, executor.submit(() -> generate(generator)));
+                }
+            }
+
+            // Generators that are not thread-safe run here, while the worker threads are busy.
+            Map<DiagramGenerator, DiagramGroup> diagramGroups = new IdentityHashMap<>();
+            for (DiagramGenerator generator : orderedGenerators) {
+                if (!futures.containsKey(generator)) {
+                    diagramGroups.put(generator, generateOrDefer(generator));
+                }
+            }
+
+            for (DiagramGenerator generator : enabledGenerators) {
+                DiagramGroup diagramGroup = futures.containsKey(generator)
+                        ? Futures.getUnchecked(futures.get(generator))
+                        : diagramGroups.get(generator);
+                registerDiagramGroup(diagramGroup);
+            }
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        Logger.MOD.info("Generation complete!");
+    /**
+     * Returns whether the current thread is one of our diagram generation worker threads. Generators running on one
+     * should not start worker threads of their own, as the other generation workers are usually busy too.
+     */
+    public static boolean isGenerationThread() {
+        return GENERATION_THREAD.get();
+    }
+
+    private static ThreadFactory generationThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true)
+                .setThreadFactory(runnable -> new Thread(() -> {
+                    GENERATION_THREAD.set(true);
+                    runnable.run();
+                })).build();
+    }
+
+    /** Returns the number of worker threads to use for parallel diagram generation. */
+    public static int getGenerationThreadCount() {
+        int threadCount = ConfigOptions.DIAGRAM_GENERATION_THREADS.get();
+        if (threadCount <= 0) {
+            threadCount = Runtime.getRuntime().availableProcessors() - 1;
+        }
+        return Math.max(1, threadCount);
+    }
+
+    private static boolean isLazy(DiagramGenerator generator) {
+        return ConfigOptions.LAZY_DIAGRAM_GROUPS.get().contains(generator.info().groupId());
+    }
+
+    /**
+     * Generates the diagram group, unless it is configured to be lazily generated, in which case a proxy diagram group
+     * is returned instead.
+     */
+    private static DiagramGroup generateOrDefer(DiagramGenerator generator) {
+        if (isLazy(generator)) {
+            Logger.MOD.info("Diagram group [{}] will be generated on first lookup.", generator.info().groupId());
+            return new LazyDiagramGroup(generator.info(), () -> {
+                DiagramGroup diagramGroup = generate(generator);
+                clearGenerationCaches();
+                return diagramGroup;
+            });
+        } else {
+            return generate(generator);
+        }
+    }
+
+    private static DiagramGroup generate(DiagramGenerator generator) {
+        DiagramGroupInfo info = generator.info();
+
+        Logger.MOD.info("Generating diagram group [{}]...", info.groupId());
+        DiagramGroup diagramGroup = SourceTracker.INSTANCE
+                .track(info.groupId(), () -> GenerationProfiler.INSTANCE.profile(info, generator::generate));
+        Logger.MOD.info(
+                "Generated diagram group [{}] in {} ms!",
+                info.groupId(),
+                GenerationProfiler.INSTANCE.getTotal(info.groupId()).map(GenerationProfiler.Entry::wallMillis)
+                        .orElse(-1L));
+
+        if (ConfigOptions.HEAP_ACCOUNTING.get()) {
+            HeapAccounting.INSTANCE.account(diagramGroup);
+        }
+        return diagramGroup;
+    }
+
+    /**
+     * Clears caches which are shared between diagram generators, and which are only useful while generation is in
+     * progress.
+     */
+    private static void clearGenerationCaches() {
+        if (ModDependency.GREGTECH_5.isLoaded()) {
+            GregTechRecipeTable.clearAll();
+            GregTechRecipeUtil.clearCache();
+        }
+    }
+
+    /** This method must be called on the client thread. */
+    private void registerDiagramGroup(DiagramGroup diagramGroup) {
+        if (SourceTracker.INSTANCE.isEnabled()) {
+            // The regenerable diagram group indexes the diagram group when publishing it, so don't index it here too.
+            RegenerableDiagramGroup regenerableDiagramGroup = new RegenerableDiagramGroup(diagramGroup);
+            regenerableDiagramGroups.put(diagramGroup.info().groupId(), regenerableDiagramGroup);
+            diagramGroup = regenerableDiagramGroup;
+        } else if (!(diagramGroup instanceof ProxyDiagramGroup)) {
+            // Proxy diagram groups get indexed when their real diagram group is published.
+            PresenceIndex.INSTANCE.index(diagramGroup);
+        }
+
+        API.registerRecipeHandler(diagramGroup);
+        API.registerUsageHandler(diagramGroup);
     }
 
     /**
@@ -0,0 +1,182 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraftforge.oredict.OreDictionary;
+
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Singleton class that records which recipe sources each diagram group read while it was being generated, so that only
+ * the affected diagram groups need to be re-generated when recipes change.
+ *
+ * <p>
+ * A recipe source is anything that can change at runtime, such as when MineTweaker scripts are reloaded: a GregTech
+ * recipe map, the crafting manager's recipe list, or the ore dictionary. Code which reads a recipe source should call
+ * {@link #recordRead(String)} or {@link #recordRead(String, Supplier)}; this is cheap, and does nothing unless the
+ * {@code incremental_regeneration} config option is enabled and a diagram group is being generated on the current
+ * thread.
+ *
+ * <p>
+ * Each recipe source has a fingerprint, which is compared to detect changes. Fingerprints are based on object
+ * identity, so they are cheap to compute but are not stable across launches.
+ *
+ * <p>
+ * This class is thread-safe, so that it can be used with parallel diagram generation.
+ */
+public enum SourceTracker {
+
+    // Singleton class; enforced by being an enum.
+    INSTANCE;
+
+    public static final String CRAFTING_RECIPES = "crafting";
+    public static final String ORE_DICTIONARY = "oredictionary";
+
+    private final Map<String, Supplier<HashCode>> fingerprinters = new ConcurrentHashMap<>();
+    private final Map<String, HashCode> fingerprints = new ConcurrentHashMap<>();
+    private final SetMultimap<String, String> groupSources = HashMultimap.create();
+
+    /** The set of recipe sources read so far by the diagram group being generated on this thread, if any. */
+    private final ThreadLocal<Set<String>> currentReads = new ThreadLocal<>();
+
+    SourceTracker() {
+        fingerprinters.put(CRAFTING_RECIPES, () -> identityFingerprint(CraftingManager.getInstance().getRecipeList()));
+        fingerprinters.put(ORE_DICTIONARY, SourceTracker::oreDictionaryFingerprint);
+    }
+
+    public boolean isEnabled() {
+        return ConfigOptions.INCREMENTAL_REGENERATION.get();
+    }
+
+    /** Records a read of a recipe source which has already been registered, such as {@link #CRAFTING_RECIPES}. */
+    public void recordRead(String sourceId) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Set<String> reads = currentReads.get();
+        if (reads != null) {
+            reads.add(sourceId);
+        }
+    }
+
+    /**
+     * Records a read of a recipe source, registering it if this is the first time that it has been read.
+     *
+     * @param fingerprinter will be called to compute fingerprints for the recipe source.
+     */
+    public void recordRead(String sourceId, Supplier<HashCode> fingerprinter) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        fingerprinters.putIfAbsent(sourceId, fingerprinter);
+        recordRead(sourceId);
+    }
+
+    /**
+     * Runs {@code generator}, recording all recipe sources that it reads as belonging to the specified diagram group.
+     * Any previously recorded recipe sources for the diagram group are replaced.
+     */
+    <T> T track(String groupId, Supplier<T> generator) {
+        if (!isEnabled()) {
+            return generator.get();
+        }
+
+        Set<String> previousReads = currentReads.get();
+        Set<String> reads = new HashSet<>();
+        currentReads.set(reads);
+        try {
+            return generator.get();
+        } finally {
+            currentReads.set(previousReads);
+
+            for (String sourceId : reads) {
+                fingerprints.computeIfAbsent(sourceId, id -> fingerprinters.get(id).get());
+            }
+            synchronized (groupSources) {
+                groupSources.replaceValues(groupId, reads);
+            }
+        }
+    }
+
+    /**
+     * Re-computes the fingerprints of all recipe sources that have been read, and returns the group IDs of all diagram
+     * groups which read a recipe source that has changed since the last call.
+     *
+     * <p>
+     * The new fingerprints are kept, so each change is only reported once.
+     */
+    ImmutableSet<String> pollChangedDiagramGroups() {
+        Set<String> changedSources = new HashSet<>();
+        for (Map.Entry<String, HashCode> entry : fingerprints.entrySet()) {
+            HashCode fingerprint = fingerprinters.get(entry.getKey()).get();
+            if (!fingerprint.equals(entry.getValue())) {
+                changedSources.add(entry.getKey());
+                entry.setValue(fingerprint);
+            }
+        }
+
+        if (!changedSources.isEmpty()) {
+            Logger.MOD.info("Recipe sources changed: {}", changedSources);
+        }
+
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        synchronized (groupSources) {
+            for (Map.Entry<String, String> entry : groupSources.entries()) {
+                if (changedSources.contains(entry.getValue())) {
+                    builder.add(entry.getKey());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a fingerprint of which objects {@code objects} contains, ignoring order.
+     *
+     * <p>
+     * This won't detect in-place modification of the objects, but recipe changes generally replace recipe objects
+     * rather than modifying them.
+     */
+    public static HashCode identityFingerprint(Collection<?> objects) {
+        long sum = 0;
+        long xor = 0;
+        for (Object object : objects) {
+            long hash = System.identityHashCode(object) * 0x9E3779B97F4A7C15L;
+            sum += hash;
+            xor ^= Long.rotateLeft(hash, 31);
+        }
+
+        return Hashing.sha1().newHasher().putInt(objects.size()).putLong(sum).putLong(xor).hash();
+    }
+
+    private static HashCode oreDictionaryFingerprint() {
+        Hasher hasher = Hashing.sha1().newHasher();
+        for (String oreName : OreDictionary.getOreNames()) {
+            List<ItemStack> ores = OreDictionary.getOres(oreName, false);
+            hasher.putInt(oreName.hashCode()).putInt(ores.size());
+
+            // Note: OreDictionary.getOres() returns OreDictionary.UnmodifiableArrayList, whose stream()
+            // method is not implemented correctly and returns an empty stream! Don't use it!
+            for (ItemStack itemStack : ores) {
+                hasher.putInt(System.identityHashCode(itemStack.getItem())).putInt(itemStack.getItemDamage());
+            }
+        }
+        return hasher.hash();
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.dcysteine.neicustomdiagram.main;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.github.dcysteine.neicustomdiagram.main.config.ConfigOptions;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cpw.mods.fml.relauncher.FMLInjectionData;
+
+/**
+ * Singleton class that counts how often each diagram group has been opened, across sessions.
+ *
+ * <p>
+ * The counts are used to decide the order in which diagram groups get generated, so that frequently used diagram
+ * groups are ready sooner. They are kept in memory, and written to a small compressed NBT file by a background thread
+ * every so often, and once more on shutdown. The file is written to a temp file first, and then renamed, so that it is
+ * never left half-written.
+ *
+ * <p>
+ * Nothing is counted, read or written unless the {@code usage_statistics} config option is enabled.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+public enum UsageStatistics {
+
+    // Singleton class; enforced by being an enum.
+    INSTANCE;
+
+    private static final File FILE = new File(
+            (File) FMLInjectionData.data()[6],
+            "config" + File.separator + NeiCustomDiagram.MOD_ID + File.separator + "usage.dat");
+    private static final File TEMP_FILE = new File(FILE.getPath() + ".tmp");
+    private static final long FLUSH_INTERVAL_SECONDS = 60L;
+
+    /** Held while writing {@link #FILE}, so that only one thread writes it at a time. */
+    private final Object fileLock = new Object();
+
+    /** Lazily loaded; use {@link #getCounts()} instead of accessing this directly. */
+    private Map<String, Integer> counts;
+    /** Whether {@link #counts} has changed since it was last written. */
+    private boolean dirty;
+    /** Lazily started on the first change; see {@link #startFlushing()}. */
+    private ScheduledExecutorService flusher;
+
+    public boolean isEnabled() {
+        return ConfigOptions.USAGE_STATISTICS.get();
+    }
+
+    /**
+     * Returns the number of times that the specified diagram group has been opened, or 0 if usage statistics are
+     * disabled.
+     */
+    public synchronized int getCount(String groupId) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        return getCounts().getOrDefault(groupId, 0);
+    }
+
+    /**
+     * Records that the specified diagram group has been opened, if usage statistics are enabled. Only updates the
+     * in-memory counts.
+     */
+    public synchronized void recordOpened(String groupId) {
+        if (!isEnabled()) {
+            return;
+        }
+        getCounts().merge(groupId, 1, Integer::sum);
+        dirty = true;
+        startFlushing();
+    }
+
+    /** Writes the counts to disk, if they have changed since they were last written. */
+    public void flush() {
+        NBTTagCompound root = new NBTTagCompound();
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            counts.forEach(root::setInteger);
+            dirty = false;
+        }
+
+        if (!save(root)) {
+            synchronized (this) {
+                // Try again on the next flush.
+                dirty = true;
+            }
+        }
+    }
+
+    private Map<String, Integer> getCounts() {
+        if (counts == null) {
+            counts = load();
+        }
+        return counts;
+    }
+
+    private void startFlushing() {
+        if (flusher != null) {
+            return;
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat(NeiCustomDiagram.MOD_NAME + " Usage Statistics Writer")
+                        .setDaemon(true).build());
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime()
+                .addShutdownHook(new Thread(this::flush, NeiCustomDiagram.MOD_NAME + " Usage Statistics Shutdown"));
+    }
+
+    private static Map<String, Integer> load() {
+        Map<String, Integer> counts = new HashMap<>();
+        if (!FILE.isFile()) {
+            return counts;
+        }
+
+        NBTTagCompound root;
+        try (InputStream inputStream = new FileInputStream(FILE)) {
+            root = CompressedStreamTools.readCompressed(inputStream);
+        } catch (IOException | RuntimeException e) {
+            Logger.MOD.warn("Could not read usage statistics!", e);
+            return counts;
+        }
+
+        for (Object key : root.func_150296_c()) {
+            String groupId = (String) key;
+            counts.put(groupId, root.getInteger(groupId));
+        }
+        return counts;
+    }
+
+    /** Returns whether the write succeeded. */
+    private boolean save(NBTTagCompound root) {
+        synchronized (fileLock) {
+            try {
+                Files.createParentDirs(FILE);
+                try (OutputStream outputStream = new FileOutputStream(TEMP_FILE)) {
+                    CompressedStreamTools.writeCompressed(root, outputStream);
+                }
+                java.nio.file.Files.move(
+                        TEMP_FILE.toPath(),
+                        FILE.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                Logger.MOD.warn("Could not write usage statistics!", e);
+                return false;
+            }
+        }
+    }
+}
@@ -41,6 +41,10 @@ public final class Config {
         }
     }
 
+    public static File getConfigFile() {
+        return CONFIG_FILE;
+    }
+
     static String getConfigFilePath() {
         return CONFIG_FILE.getAbsolutePath();
     }
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraftforge.common.config.ConfigElement;
 
+import com.github.dcysteine.neicustomdiagram.api.diagram.matcher.CachingDiagramMatcher;
 import com.github.dcysteine.neicustomdiagram.main.NeiCustomDiagram;
 
 import cpw.mods.fml.client.config.GuiConfig;
@@ -29,6 +30,9 @@ public final class ConfigGui extends GuiConfig {
     public void onGuiClosed() {
         super.onGuiClosed();
         Config.saveConfig();
+
+        // Dynamically generated diagrams may depend on config options.
+        CachingDiagramMatcher.invalidateAll();
     }
 
     @SuppressWarnings("rawtypes")
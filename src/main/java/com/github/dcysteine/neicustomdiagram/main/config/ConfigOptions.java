@@ -10,6 +10,7 @@ import net.minecraftforge.common.config.Property;
 import com.github.dcysteine.neicustomdiagram.api.diagram.DiagramGroupInfo;
 import com.github.dcysteine.neicustomdiagram.main.Logger;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 public final class ConfigOptions {
 
@@ -45,6 +46,78 @@ public final class ConfigOptions {
                     + "\nChanging this option requires a restart to take effect.",
             true).register();
 
+    public static final Option<Boolean> PARALLEL_DIAGRAM_GENERATION = new BooleanOption(
+            Category.OPTIONS,
+            "parallel_diagram_generation",
+            false,
+            "If this option is enabled, diagram groups which support it will be generated in parallel"
+                    + " on worker threads."
+                    + "\nThis can speed up generation considerably, at the cost of higher peak memory usage."
+                    + "\nDiagram groups are still registered with NEI in the usual order.",
+            true).register();
+
+    public static final Option<Integer> DIAGRAM_GENERATION_THREADS = new IntegerOption(
+            Category.OPTIONS,
+            "diagram_generation_threads",
+            0,
+            "Sets the maximum # of worker threads used for parallel diagram generation."
+                    + "\nSet to 0 to use one fewer than the number of available processors."
+                    + "\nOnly has an effect if parallel_diagram_generation is enabled.",
+            true).register();
+
+    public static final Option<Boolean> BACKGROUND_DIAGRAM_GENERATION = new BooleanOption(
+            Category.OPTIONS,
+            "background_diagram_generation",
+            false,
+            "If this option is enabled, diagram groups which support it will be generated on a background"
+                    + " thread after joining a world, instead of blocking the game."
+                    + "\nUntil generation finishes, these diagram groups will show a progress placeholder."
+                    + "\nOnly has an effect if generate_diagrams_on_client_connect is enabled.",
+            true).register();
+
+    public static final Option<Boolean> RECIPE_CHECK_CACHE = new BooleanOption(
+            Category.OPTIONS,
+            "recipe_check_cache",
+            false,
+            "If this option is enabled, the results of the GregTech recipe debugger's second pass of recipe"
+                    + " checks will be saved to disk, and re-used on the next launch."
+                    + "\nThis is not a cache of generated diagrams: recipes are still read in full, and all other"
+                    + " diagram groups are still generated in full. It only has an effect if the GregTech recipe"
+                    + " debugger is enabled, and is not lazily generated."
+                    + "\nThe cache is automatically invalidated if the mod list, mod config files, MineTweaker"
+                    + " scripts, restart-requiring config options, or the checked recipes themselves change.",
+            true).register();
+
+    public static final Option<Boolean> INCREMENTAL_REGENERATION = new BooleanOption(
+            Category.OPTIONS,
+            "incremental_regeneration",
+            false,
+            "If this option is enabled, the recipe sources read by each diagram group will be tracked, and the"
+                    + " /neicustomdiagram regenerate command will re-generate only those diagram groups whose"
+                    + " recipes have changed, such as after reloading MineTweaker scripts."
+                    + "\nThis is mainly intended for use during modpack development.",
+            true).register();
+
+    public static final Option<Boolean> HEAP_ACCOUNTING = new BooleanOption(
+            Category.OPTIONS,
+            "heap_accounting",
+            false,
+            "If this option is enabled, the heap retained by each diagram group will be estimated after"
+                    + " generation, and logged."
+                    + "\nThe results can also be viewed in the Debug Memory Usage diagram group.",
+            true).register();
+
+    public static final Option<Integer> DYNAMIC_DIAGRAM_CACHE_SIZE = new IntegerOption(
+            Category.OPTIONS,
+            "dynamic_diagram_cache_size",
+            64,
+            "Sets the maximum # of lookups whose diagrams will be cached, for each diagram group which"
+                    + " generates its diagrams on the fly, such as the ore dictionary diagram groups."
+                    + "\nThe caches are cleared when the ore dictionary or config options change."
+                    + "\nSet to 0 to disable caching."
+                    + "\nChanging this option requires a restart to take effect.",
+            true).register();
+
     public static final Option<List<String>> HARD_DISABLED_DIAGRAM_GROUPS = new StringListOption(
             Category.OPTIONS,
             "hard_disabled_diagram_groups",
@@ -62,6 +135,45 @@ public final class ConfigOptions {
                     + "\nChanging this option requires a restart to take effect.",
             true).register();
 
+    public static final Option<List<String>> LAZY_DIAGRAM_GROUPS = new StringListOption(
+            Category.OPTIONS,
+            "lazy_diagram_groups",
+            new ArrayList<>(),
+            "Add a diagram group ID here to delay generating that diagram group until the first time"
+                    + " it is looked up."
+                    + "\nThis speeds up joining a world, but NEI passes every lookup to every diagram group, so"
+                    + " the game will freeze while the diagram group is generated on the first lookup of any"
+                    + " item or fluid."
+                    + "\nEntries in this option should have the form (no spaces, all"
+                    + " lower-case):"
+                    + "\n  neicustomdiagram.diagramgroup.<mod name>.<diagram group name>"
+                    + "\nChanging this option requires a restart to take effect.",
+            true).register();
+
+    public static final Option<List<String>> PRIORITY_DIAGRAM_GROUPS = new StringListOption(
+            Category.OPTIONS,
+            "priority_diagram_groups",
+            Lists.newArrayList(
+                    "neicustomdiagram.diagramgroup.gregtech.oreprocessing",
+                    "neicustomdiagram.diagramgroup.gregtech.materialparts"),
+            "Diagram groups listed here will be generated first, in the order listed."
+                    + "\nAll other diagram groups are generated afterwards, most frequently opened first if"
+                    + " usage_statistics is enabled."
+                    + "\nThis is most useful together with the background_diagram_generation option, as each"
+                    + " diagram group becomes available as soon as it has been generated."
+                    + "\nEntries in this option should have the form (no spaces, all"
+                    + " lower-case):"
+                    + "\n  neicustomdiagram.diagramgroup.<mod name>.<diagram group name>").register();
+
+    public static final Option<Boolean> USAGE_STATISTICS = new BooleanOption(
+            Category.OPTIONS,
+            "usage_statistics",
+            false,
+            "If this option is enabled, the number of times that each diagram group is opened will be"
+                    + " counted, and saved to config/neicustomdiagram/usage.dat."
+                    + "\nDiagram groups which are not listed in priority_diagram_groups will then be generated"
+                    + " most frequently opened first.").register();
+
     public static final Option<Integer> MOUSE_SCROLL_SPEED = new IntegerOption(
             Category.OPTIONS,
             "mouse_scroll_speed",
@@ -183,6 +295,15 @@ public final class ConfigOptions {
 
         @Override
         public abstract T get();
+
+        /** Returns the fully-qualified config key, including the category. */
+        public String fullKey() {
+            return category + "." + key;
+        }
+
+        public boolean requiresRestart() {
+            return requiresRestart;
+        }
     }
 
     public static final class BooleanOption extends Option<Boolean> {
@@ -3,27 +3,56 @@ package com.github.dcysteine.neicustomdiagram.util;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.oredict.OreDictionary;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.DisplayComponent;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
+import com.github.dcysteine.neicustomdiagram.main.SourceTracker;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 import codechicken.nei.ItemList;
 
 public final class OreDictUtil {
 
+    /**
+     * Cache of the expanded permutations of wildcard damage item components.
+     *
+     * <p>
+     * Permutations come from NEI's item list, which is loaded asynchronously, so we don't cache anything while it is
+     * still empty. NEI can also reload its item list later, so the cache is cleared whenever that finishes (see
+     * {@link #invalidateCaches()}).
+     */
+    private static final Map<ItemComponent, ImmutableList<Component>> PERMUTATIONS_CACHE = new ConcurrentHashMap<>();
+
+    /** Cache of the result of {@link #getDisplayPermutations(String)}. */
+    private static final Map<String, ImmutableList<ImmutableList<DisplayComponent>>> DISPLAY_PERMUTATIONS_CACHE =
+            new ConcurrentHashMap<>();
+
     // Static class.
     private OreDictUtil() {}
 
+    /**
+     * Clears cached permutations. Should be called whenever the ore dictionary changes, or NEI's item list is
+     * (re)loaded.
+     */
+    public static void invalidateCaches() {
+        PERMUTATIONS_CACHE.clear();
+        DISPLAY_PERMUTATIONS_CACHE.clear();
+    }
+
     public static List<String> getOreNames(Component component) {
         if (component.type() != Component.ComponentType.ITEM) {
             return Lists.newArrayList();
         }
 
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
         return Arrays.stream(OreDictionary.getOreIDs((ItemStack) component.stack())).mapToObj(OreDictionary::getOreName)
                 .collect(Collectors.toList());
     }
@@ -31,6 +60,7 @@ public final class OreDictUtil {
     public static List<ItemComponent> getComponents(String oreName) {
         // Note: OreDictionary.getOres() returns OreDictionary.UnmodifiableArrayList, whose stream()
         // method is not implemented correctly and returns an empty stream! Don't use it!
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
         List<ItemComponent> components = new ArrayList<>();
         for (ItemStack itemStack : OreDictionary.getOres(oreName, false)) {
             components.add(ItemComponent.create(itemStack));
@@ -42,22 +72,68 @@ public final class OreDictUtil {
      * If {@code component} is an {@link ItemComponent} with {@link ItemComponent#hasWildcardDamage()} equal to
      * {@code true}, then returns a list of all valid item damage permutations of that item; otherwise, returns a list
      * containing just {@code component}.
+     *
+     * <p>
+     * The returned list is always immutable, as it may be shared with other callers through the cache.
      */
-    public static List<Component> getPermutations(Component component) {
+    public static ImmutableList<Component> getPermutations(Component component) {
         if (component.type() != Component.ComponentType.ITEM) {
-            return Lists.newArrayList(component);
+            return ImmutableList.of(component);
         }
 
         ItemComponent itemComponent = (ItemComponent) component;
         if (itemComponent.hasWildcardDamage()) {
-            List<ItemStack> permutations = ItemList.itemMap.get(itemComponent.item());
+            ImmutableList<Component> permutations = getWildcardPermutations(itemComponent);
             if (!permutations.isEmpty()) {
-                return permutations.stream().map(ItemComponent::create).collect(Collectors.toList());
+                return permutations;
             } else {
-                return Lists.newArrayList(ItemComponent.create(itemComponent.item(), 0, itemComponent.nbt()));
+                return ImmutableList.of(ItemComponent.create(itemComponent.item(), 0, itemComponent.nbtReadOnly()));
             }
         } else {
-            return Lists.newArrayList(component);
+            return ImmutableList.of(component);
+        }
+    }
+
+    /**
+     * Returns, for each component registered under {@code oreName}, a list of display components for all of its
+     * permutations (see {@link #getPermutations(Component)}).
+     */
+    public static ImmutableList<ImmutableList<DisplayComponent>> getDisplayPermutations(String oreName) {
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
+        ImmutableList<ImmutableList<DisplayComponent>> cached = DISPLAY_PERMUTATIONS_CACHE.get(oreName);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean cacheable = true;
+        ImmutableList.Builder<ImmutableList<DisplayComponent>> builder = ImmutableList.builder();
+        for (ItemComponent component : getComponents(oreName)) {
+            if (component.hasWildcardDamage() && getWildcardPermutations(component).isEmpty()) {
+                cacheable = false;
+            }
+            builder.add(ImmutableList.copyOf(ComponentTransformer.transformToDisplay(getPermutations(component))));
+        }
+
+        ImmutableList<ImmutableList<DisplayComponent>> displayPermutations = builder.build();
+        if (cacheable) {
+            DISPLAY_PERMUTATIONS_CACHE.put(oreName, displayPermutations);
+        }
+        return displayPermutations;
+    }
+
+    /** Returns an empty list if NEI's item list has no permutations for {@code component}. */
+    private static ImmutableList<Component> getWildcardPermutations(ItemComponent component) {
+        ImmutableList<Component> cached = PERMUTATIONS_CACHE.get(component);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<ItemStack> itemStacks = ItemList.itemMap.get(component.item());
+        ImmutableList<Component> permutations = ImmutableList
+                .copyOf(itemStacks.stream().map(ItemComponent::create).collect(Collectors.toList()));
+        if (!permutations.isEmpty()) {
+            PERMUTATIONS_CACHE.put(component, permutations);
         }
+        return permutations;
     }
 }
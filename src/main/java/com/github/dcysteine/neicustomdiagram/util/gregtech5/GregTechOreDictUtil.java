@@ -9,6 +9,7 @@ import net.minecraft.item.ItemStack;
 
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
 import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
+import com.github.dcysteine.neicustomdiagram.main.SourceTracker;
 
 import gregtech.api.enums.ItemList;
 import gregtech.api.enums.Materials;
@@ -26,11 +27,13 @@ public final class GregTechOreDictUtil {
     }
 
     public static Optional<ItemComponent> getComponent(OrePrefixes prefix, Materials material) {
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
         Optional<ItemStack> itemStackOptional = Optional.ofNullable(GTOreDictUnificator.get(prefix, material, 1));
         return itemStackOptional.map(ItemComponent::create);
     }
 
     public static List<ItemComponent> getAllComponents(OrePrefixes prefix, Materials material) {
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
         List<ItemStack> itemStacks = GTOreDictUnificator.getOres(prefix, material);
         return itemStacks.stream().map(ItemComponent::create).collect(Collectors.toList());
     }
@@ -44,6 +47,7 @@ public final class GregTechOreDictUtil {
             return component;
         }
 
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
         return ItemComponent.create(GTOreDictUnificator.get_nocopy((ItemStack) component.stack()));
     }
 
@@ -74,6 +78,7 @@ public final class GregTechOreDictUtil {
         if (component.type() != Component.ComponentType.ITEM) {
             return Optional.empty();
         }
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
         return Optional.ofNullable(GTOreDictUnificator.getAssociation((ItemStack) component.stack()));
     }
 
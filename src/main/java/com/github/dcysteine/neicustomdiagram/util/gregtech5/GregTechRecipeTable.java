@@ -0,0 +1,367 @@
+package com.github.dcysteine.neicustomdiagram.util.gregtech5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.Component;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.FluidComponent;
+import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent;
+import com.github.dcysteine.neicustomdiagram.main.SourceTracker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+
+import gregtech.api.recipe.RecipeMap;
+import gregtech.api.util.GTOreDictUnificator;
+import gregtech.api.util.GTRecipe;
+
+/**
+ * Column-oriented snapshot of all recipes in a single GregTech recipe map.
+ *
+ * <p>
+ * Each recipe map is scanned at most once per generation run, no matter how many diagram generators use it, and the
+ * item and fluid components are only built once. Components are stored in a per-table dictionary and referred to by
+ * dense integer IDs; IDs, stack sizes, and output chances are stored in primitive arrays, with one offsets array per
+ * column marking where each recipe's entries begin.
+ *
+ * <p>
+ * Recipes are indexed in the same order as {@link RecipeMap#getAllRecipes()}. Null item and fluid stacks are skipped,
+ * so slot indices in this table may not match the slot indices in the underlying {@link GTRecipe}.
+ *
+ * <p>
+ * Tables are shared via {@link #get(RecipeMap)}, which is thread-safe. Call {@link #clearAll()} once generation is
+ * complete, so that the tables can be garbage-collected.
+ */
+public final class GregTechRecipeTable {
+
+    /** Output chance representing a guaranteed output, in GregTech's units of hundredths of a percent. */
+    public static final int GUARANTEED_CHANCE = 100_00;
+
+    private static final LoadingCache<RecipeMap<?>, GregTechRecipeTable> TABLES = CacheBuilder.newBuilder()
+            .weakKeys().build(CacheLoader.from(GregTechRecipeTable::new));
+
+    private final ImmutableList<GTRecipe> recipes;
+    private final ImmutableList<Component> components;
+
+    private final Columns itemInputs;
+    private final Columns fluidInputs;
+    private final Columns itemOutputs;
+    private final Columns fluidOutputs;
+
+    private final int[] durations;
+    private final int[] euts;
+    private final int[] specialValues;
+
+    /** Returns the shared table for {@code recipeMap}, scanning the recipe map if necessary. */
+    public static GregTechRecipeTable get(RecipeMap<?> recipeMap) {
+        SourceTracker.INSTANCE.recordRead(
+                "gregtech." + recipeMap.unlocalizedName,
+                () -> SourceTracker.identityFingerprint(recipeMap.getAllRecipes()));
+        // Recipe items are unified using the ore dictionary.
+        SourceTracker.INSTANCE.recordRead(SourceTracker.ORE_DICTIONARY);
+        return TABLES.getUnchecked(recipeMap);
+    }
+
+    /** Drops all shared tables. Tables will be re-built if they are requested again. */
+    public static void clearAll() {
+        TABLES.invalidateAll();
+    }
+
+    private GregTechRecipeTable(RecipeMap<?> recipeMap) {
+        this.recipes = ImmutableList.copyOf(recipeMap.getAllRecipes());
+
+        Dictionary dictionary = new Dictionary();
+        Columns.Builder itemInputsBuilder = new Columns.Builder(recipes.size());
+        Columns.Builder fluidInputsBuilder = new Columns.Builder(recipes.size());
+        Columns.Builder itemOutputsBuilder = new Columns.Builder(recipes.size());
+        Columns.Builder fluidOutputsBuilder = new Columns.Builder(recipes.size());
+        this.durations = new int[recipes.size()];
+        this.euts = new int[recipes.size()];
+        this.specialValues = new int[recipes.size()];
+
+        for (int i = 0; i < recipes.size(); i++) {
+            GTRecipe recipe = recipes.get(i);
+
+            for (ItemStack itemStack : recipe.mInputs) {
+                if (itemStack != null) {
+                    addItemStack(dictionary, itemInputsBuilder, itemStack, GUARANTEED_CHANCE);
+                }
+            }
+            for (FluidStack fluidStack : recipe.mFluidInputs) {
+                if (fluidStack != null) {
+                    addFluidStack(dictionary, fluidInputsBuilder, fluidStack);
+                }
+            }
+            for (int j = 0; j < recipe.mOutputs.length; j++) {
+                ItemStack itemStack = recipe.mOutputs[j];
+                if (itemStack != null) {
+                    addItemStack(dictionary, itemOutputsBuilder, itemStack, recipe.getOutputChance(j));
+                }
+            }
+            for (FluidStack fluidStack : recipe.mFluidOutputs) {
+                if (fluidStack != null) {
+                    addFluidStack(dictionary, fluidOutputsBuilder, fluidStack);
+                }
+            }
+
+            itemInputsBuilder.endRecipe();
+            fluidInputsBuilder.endRecipe();
+            itemOutputsBuilder.endRecipe();
+            fluidOutputsBuilder.endRecipe();
+            durations[i] = recipe.mDuration;
+            euts[i] = recipe.mEUt;
+            specialValues[i] = recipe.mSpecialValue;
+        }
+
+        this.components = ImmutableList.copyOf(dictionary.components);
+        this.itemInputs = itemInputsBuilder.build();
+        this.fluidInputs = fluidInputsBuilder.build();
+        this.itemOutputs = itemOutputsBuilder.build();
+        this.fluidOutputs = fluidOutputsBuilder.build();
+    }
+
+    private static void addItemStack(Dictionary dictionary, Columns.Builder builder, ItemStack itemStack, int chance) {
+        int id = dictionary.id(ItemComponent.createWithNbt(itemStack));
+        int unifiedId = dictionary.id(ItemComponent.createWithNbt(GTOreDictUnificator.get_nocopy(itemStack)));
+        builder.add(id, unifiedId, itemStack.stackSize, chance);
+    }
+
+    private static void addFluidStack(Dictionary dictionary, Columns.Builder builder, FluidStack fluidStack) {
+        int id = dictionary.id(FluidComponent.createWithNbt(fluidStack));
+        builder.add(id, id, fluidStack.amount, GUARANTEED_CHANCE);
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    public GTRecipe recipe(int recipe) {
+        return recipes.get(recipe);
+    }
+
+    public ImmutableList<GTRecipe> recipes() {
+        return recipes;
+    }
+
+    /** Returns the number of distinct components in this table. IDs range from {@code 0} to this value, exclusive. */
+    public int componentCount() {
+        return components.size();
+    }
+
+    public Component component(int id) {
+        return components.get(id);
+    }
+
+    public int duration(int recipe) {
+        return durations[recipe];
+    }
+
+    public int eut(int recipe) {
+        return euts[recipe];
+    }
+
+    public int specialValue(int recipe) {
+        return specialValues[recipe];
+    }
+
+    public int itemInputCount(int recipe) {
+        return itemInputs.count(recipe);
+    }
+
+    /** Returns the ID of the item input, as it appears in the recipe. */
+    public int itemInputId(int recipe, int slot) {
+        return itemInputs.ids[itemInputs.index(recipe, slot)];
+    }
+
+    /** Returns the ID of the item input, after unification via {@link GTOreDictUnificator}. */
+    public int unifiedItemInputId(int recipe, int slot) {
+        return itemInputs.unifiedIds[itemInputs.index(recipe, slot)];
+    }
+
+    public int itemInputAmount(int recipe, int slot) {
+        return itemInputs.amounts[itemInputs.index(recipe, slot)];
+    }
+
+    public int fluidInputCount(int recipe) {
+        return fluidInputs.count(recipe);
+    }
+
+    public int fluidInputId(int recipe, int slot) {
+        return fluidInputs.ids[fluidInputs.index(recipe, slot)];
+    }
+
+    public int fluidInputAmount(int recipe, int slot) {
+        return fluidInputs.amounts[fluidInputs.index(recipe, slot)];
+    }
+
+    public int itemOutputCount(int recipe) {
+        return itemOutputs.count(recipe);
+    }
+
+    /** Returns the ID of the item output, as it appears in the recipe. */
+    public int itemOutputId(int recipe, int slot) {
+        return itemOutputs.ids[itemOutputs.index(recipe, slot)];
+    }
+
+    /** Returns the ID of the item output, after unification via {@link GTOreDictUnificator}. */
+    public int unifiedItemOutputId(int recipe, int slot) {
+        return itemOutputs.unifiedIds[itemOutputs.index(recipe, slot)];
+    }
+
+    public int itemOutputAmount(int recipe, int slot) {
+        return itemOutputs.amounts[itemOutputs.index(recipe, slot)];
+    }
+
+    /** Returns the output chance, in hundredths of a percent. */
+    public int itemOutputChance(int recipe, int slot) {
+        return itemOutputs.chances[itemOutputs.index(recipe, slot)];
+    }
+
+    public int fluidOutputCount(int recipe) {
+        return fluidOutputs.count(recipe);
+    }
+
+    public int fluidOutputId(int recipe, int slot) {
+        return fluidOutputs.ids[fluidOutputs.index(recipe, slot)];
+    }
+
+    public int fluidOutputAmount(int recipe, int slot) {
+        return fluidOutputs.amounts[fluidOutputs.index(recipe, slot)];
+    }
+
+    /** Convenience method which returns the item inputs, as they appear in the recipe. */
+    public List<ItemComponent> itemInputs(int recipe) {
+        return itemComponents(itemInputs.ids, itemInputs, recipe);
+    }
+
+    /** Convenience method which returns the item inputs, after unification. */
+    public List<ItemComponent> unifiedItemInputs(int recipe) {
+        return itemComponents(itemInputs.unifiedIds, itemInputs, recipe);
+    }
+
+    /** Convenience method which returns the item outputs, as they appear in the recipe. */
+    public List<ItemComponent> itemOutputs(int recipe) {
+        return itemComponents(itemOutputs.ids, itemOutputs, recipe);
+    }
+
+    private List<ItemComponent> itemComponents(int[] ids, Columns columns, int recipe) {
+        int count = columns.count(recipe);
+        List<ItemComponent> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add((ItemComponent) components.get(ids[columns.index(recipe, i)]));
+        }
+        return list;
+    }
+
+    /** Assigns dense IDs to components, in the order that they are first seen. */
+    private static final class Dictionary {
+
+        private final List<Component> components = new ArrayList<>();
+        private final Map<Component, Integer> ids = new HashMap<>();
+
+        private int id(Component component) {
+            Integer id = ids.get(component);
+            if (id == null) {
+                id = components.size();
+                components.add(component);
+                ids.put(component, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * The columns for one kind of recipe entry, such as item inputs.
+     *
+     * <p>
+     * The entries for recipe {@code i} are stored at indices {@code [offsets[i], offsets[i + 1])} of the other arrays.
+     */
+    private static final class Columns {
+
+        private final int[] offsets;
+        private final int[] ids;
+        private final int[] unifiedIds;
+        private final int[] amounts;
+        private final int[] chances;
+
+        private Columns(int[] offsets, int[] ids, int[] unifiedIds, int[] amounts, int[] chances) {
+            this.offsets = offsets;
+            this.ids = ids;
+            this.unifiedIds = unifiedIds;
+            this.amounts = amounts;
+            this.chances = chances;
+        }
+
+        private int count(int recipe) {
+            return offsets[recipe + 1] - offsets[recipe];
+        }
+
+        private int index(int recipe, int slot) {
+            if (slot < 0 || slot >= count(recipe)) {
+                throw new IndexOutOfBoundsException(
+                        String.format("Slot %d out of range for recipe %d: [0, %d)", slot, recipe, count(recipe)));
+            }
+            return offsets[recipe] + slot;
+        }
+
+        private static final class Builder {
+
+            private final int[] offsets;
+            private int recipes;
+
+            private int size;
+            private int[] ids;
+            private int[] unifiedIds;
+            private int[] amounts;
+            private int[] chances;
+
+            private Builder(int recipeCount) {
+                this.offsets = new int[recipeCount + 1];
+                this.recipes = 0;
+
+                int capacity = Math.max(16, 2 * recipeCount);
+                this.size = 0;
+                this.ids = new int[capacity];
+                this.unifiedIds = new int[capacity];
+                this.amounts = new int[capacity];
+                this.chances = new int[capacity];
+            }
+
+            private void add(int id, int unifiedId, int amount, int chance) {
+                if (size == ids.length) {
+                    int capacity = 2 * size;
+                    ids = Arrays.copyOf(ids, capacity);
+                    unifiedIds = Arrays.copyOf(unifiedIds, capacity);
+                    amounts = Arrays.copyOf(amounts, capacity);
+                    chances = Arrays.copyOf(chances, capacity);
+                }
+
+                ids[size] = id;
+                unifiedIds[size] = unifiedId;
+                amounts[size] = amount;
+                chances[size] = chance;
+                size++;
+            }
+
+            private void endRecipe() {
+                offsets[++recipes] = size;
+            }
+
+            private Columns build() {
+                return new Columns(
+                        offsets,
+                        Arrays.copyOf(ids, size),
+                        Arrays.copyOf(unifiedIds, size),
+                        Arrays.copyOf(amounts, size),
+                        Arrays.copyOf(chances, size));
+            }
+        }
+    }
+}
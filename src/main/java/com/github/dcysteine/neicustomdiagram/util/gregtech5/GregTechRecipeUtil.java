@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.fluids.FluidStack;
@@ -17,6 +18,9 @@ import com.github.dcysteine.neicustomdiagram.api.diagram.component.ItemComponent
 import com.github.dcysteine.neicustomdiagram.api.diagram.tooltip.Tooltip;
 import com.github.dcysteine.neicustomdiagram.main.Lang;
 import com.google.common.base.Joiner;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 
 import gregtech.api.recipe.RecipeMap;
@@ -27,9 +31,45 @@ public final class GregTechRecipeUtil {
 
     private static final Joiner STRING_JOINER = Joiner.on(' ');
 
+    /*
+     * Converted display components, keyed by recipe identity. Several generators convert the same recipes, so we only
+     * want to do this once per generation run; call clearCache() once generation is complete.
+     */
+    private static final LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> ITEM_INPUTS_CACHE = buildCache(
+            recipe -> buildComponents(recipe.mInputs));
+    private static final LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> FLUID_INPUTS_CACHE = buildCache(
+            recipe -> buildComponents(recipe.mFluidInputs));
+    private static final LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> ITEM_OUTPUTS_CACHE = buildCache(
+            GregTechRecipeUtil::buildItemOutputs);
+    private static final LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> FLUID_OUTPUTS_CACHE = buildCache(
+            GregTechRecipeUtil::buildFluidOutputs);
+    private static final LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> INPUTS_CACHE = buildCache(
+            recipe -> ImmutableList.<DisplayComponent>builder().addAll(ITEM_INPUTS_CACHE.getUnchecked(recipe))
+                    .addAll(FLUID_INPUTS_CACHE.getUnchecked(recipe)).build());
+    private static final LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> OUTPUTS_CACHE = buildCache(
+            recipe -> ImmutableList.<DisplayComponent>builder().addAll(ITEM_OUTPUTS_CACHE.getUnchecked(recipe))
+                    .addAll(FLUID_OUTPUTS_CACHE.getUnchecked(recipe)).build());
+
     // Static class.
     private GregTechRecipeUtil() {}
 
+    private static LoadingCache<GTRecipe, ImmutableList<DisplayComponent>> buildCache(
+            Function<GTRecipe, List<DisplayComponent>> converter) {
+        // Weak keys are compared by identity, which is what we want: GTRecipe equality only looks at inputs.
+        return CacheBuilder.newBuilder().weakKeys()
+                .build(CacheLoader.from(recipe -> ImmutableList.copyOf(converter.apply(recipe))));
+    }
+
+    /** Drops all cached display components. They will be re-built if they are requested again. */
+    public static void clearCache() {
+        ITEM_INPUTS_CACHE.invalidateAll();
+        FLUID_INPUTS_CACHE.invalidateAll();
+        ITEM_OUTPUTS_CACHE.invalidateAll();
+        FLUID_OUTPUTS_CACHE.invalidateAll();
+        INPUTS_CACHE.invalidateAll();
+        OUTPUTS_CACHE.invalidateAll();
+    }
+
     // TODO these findRecipe* methods are slow and inefficient, and also unused. Maybe delete them?
     /** Compares ignoring stack size. */
     public static List<GTRecipe> findRecipeByInput(RecipeMap<?> recipes, Component... inputs) {
@@ -106,19 +146,19 @@ public final class GregTechRecipeUtil {
         return true;
     }
 
+    /** The returned list is cached, and is immutable. */
     public static List<DisplayComponent> buildComponentsFromInputs(GTRecipe recipe) {
-        List<DisplayComponent> components = new ArrayList<>();
-        components.addAll(buildComponentsFromItemInputs(recipe));
-        components.addAll(buildComponentsFromFluidInputs(recipe));
-        return components;
+        return INPUTS_CACHE.getUnchecked(recipe);
     }
 
+    /** The returned list is cached, and is immutable. */
     public static List<DisplayComponent> buildComponentsFromItemInputs(GTRecipe recipe) {
-        return buildComponents(recipe.mInputs);
+        return ITEM_INPUTS_CACHE.getUnchecked(recipe);
     }
 
+    /** The returned list is cached, and is immutable. */
     public static List<DisplayComponent> buildComponentsFromFluidInputs(GTRecipe recipe) {
-        return buildComponents(recipe.mFluidInputs);
+        return FLUID_INPUTS_CACHE.getUnchecked(recipe);
     }
 
     public static List<DisplayComponent> buildComponents(ItemStack[] itemStacks) {
@@ -164,16 +204,24 @@ public final class GregTechRecipeUtil {
         return list;
     }
 
+    /** The returned list is cached, and is immutable. */
     public static List<DisplayComponent> buildComponentsFromOutputs(GTRecipe recipe) {
-        List<DisplayComponent> components = new ArrayList<>();
-        components.addAll(buildComponentsFromItemOutputs(recipe));
-        components.addAll(buildComponentsFromFluidOutputs(recipe));
-        return components;
+        return OUTPUTS_CACHE.getUnchecked(recipe);
+    }
+
+    /** The returned list is cached, and is immutable. */
+    public static List<DisplayComponent> buildComponentsFromItemOutputs(GTRecipe recipe) {
+        return ITEM_OUTPUTS_CACHE.getUnchecked(recipe);
+    }
+
+    /** The returned list is cached, and is immutable. */
+    public static List<DisplayComponent> buildComponentsFromFluidOutputs(GTRecipe recipe) {
+        return FLUID_OUTPUTS_CACHE.getUnchecked(recipe);
     }
 
     // TODO maybe show recipe voltage tier in tooltip? (Also for fluids, below)
     // Unfortunately, we'll need the recipe map to do this, as amperage is not stored in recipe.
-    public static List<DisplayComponent> buildComponentsFromItemOutputs(GTRecipe recipe) {
+    private static List<DisplayComponent> buildItemOutputs(GTRecipe recipe) {
         List<DisplayComponent> results = new ArrayList<>();
 
         for (int i = 0; i < recipe.mOutputs.length; i++) {
@@ -219,7 +267,7 @@ public final class GregTechRecipeUtil {
         return results;
     }
 
-    public static List<DisplayComponent> buildComponentsFromFluidOutputs(GTRecipe recipe) {
+    private static List<DisplayComponent> buildFluidOutputs(GTRecipe recipe) {
         List<DisplayComponent> results = new ArrayList<>();
 
         for (int i = 0; i < recipe.mFluidOutputs.length; i++) {
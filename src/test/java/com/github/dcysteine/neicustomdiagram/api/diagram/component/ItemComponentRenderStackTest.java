@@ -0,0 +1,85 @@
+package com.github.dcysteine.neicustomdiagram.api.diagram.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link ItemComponent#renderStack()} is built once, allocates nothing once built, and never exposes the
+ * NBT behind the component's {@link ImmutableNbtWrapper}.
+ *
+ * <p>
+ * Uses an unregistered item, so that no game instance is needed.
+ */
+class ItemComponentRenderStackTest {
+
+    /** Enough calls that even a single small allocation per call would show up clearly. */
+    private static final int CALL_COUNT = 100_000;
+
+    private static final Item ITEM = new Item();
+
+    @Test
+    void renderStackIsShared() {
+        ItemComponent component = ItemComponent.create(ITEM, 3, Optional.of(buildNbt()));
+        assertSame(component.renderStack(), component.renderStack());
+    }
+
+    @Test
+    void steadyStateRenderStackAllocatesNothing() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "Thread allocation counting is not supported");
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        ItemComponent component = ItemComponent.create(ITEM, 3, Optional.of(buildNbt()));
+        // Build the render stack, and warm up the allocation counter itself.
+        ItemStack expected = component.renderStack();
+        threadBean.getThreadAllocatedBytes(threadId);
+
+        // Reading the counter may allocate a little by itself, so measure that too.
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        boolean allSame = true;
+        for (int i = 0; i < CALL_COUNT; i++) {
+            allSame &= component.renderStack() == expected;
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allSame);
+        assertTrue(allocated <= overhead, "Allocated " + allocated + " bytes over " + CALL_COUNT + " calls");
+    }
+
+    @Test
+    void modifyingRenderStackNbtDoesNotChangeComponent() {
+        ItemComponent component = ItemComponent.create(ITEM, 3, Optional.of(buildNbt()));
+        ImmutableNbtWrapper nbtWrapper = component.nbtWrapper().get();
+        int hashCode = nbtWrapper.hashCode();
+
+        // Simulates another mod's tooltip handler writing to the stack it was given.
+        component.renderStack().stackTagCompound.setString("key", "modified");
+        component.renderStack().stackTagCompound.setInteger("added", 1);
+
+        assertEquals(buildNbt(), component.nbtReadOnly().get());
+        assertEquals(hashCode, nbtWrapper.hashCode());
+        assertSame(component, ItemComponent.create(ITEM, 3, Optional.of(buildNbt())));
+    }
+
+    private static NBTTagCompound buildNbt() {
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setString("key", "value");
+        return nbt;
+    }
+}
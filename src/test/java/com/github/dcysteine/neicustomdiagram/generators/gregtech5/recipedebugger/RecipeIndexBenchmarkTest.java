@@ -0,0 +1,181 @@
+package com.github.dcysteine.neicustomdiagram.generators.gregtech5.recipedebugger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmarks the pass 2 recipe checks on a synthetic recipe map shaped like the fluid solidifier's: tens of thousands
+ * of recipes, each taking one of a few molds plus one of many fluids.
+ *
+ * <p>
+ * Components are represented by strings here, so that no game instance is needed.
+ */
+class RecipeIndexBenchmarkTest {
+
+    private static final int RECIPE_COUNT = 50_000;
+    /** Size of the recipe map used to check the results against a brute force implementation. */
+    private static final int BRUTE_FORCE_RECIPE_COUNT = 2_000;
+
+    private static final int CIRCUIT_COUNT = 25;
+    private static final int MOLD_COUNT = 50;
+    /** One in this many recipes takes a programmed circuit. */
+    private static final int CIRCUIT_EVERY = 5;
+    /** One in this many recipes is a copy of the previous recipe, and so collides with it. */
+    private static final int DUPLICATE_EVERY = 1_000;
+    /** One in this many recipes outputs its own input fluid, and so is voiding. */
+    private static final int VOIDING_EVERY = 100;
+
+    /**
+     * The checks, including building the index, take under a second on a typical machine. This bound is generous, so
+     * that the test doesn't flake on slow machines.
+     */
+    private static final Duration TIME_BOUND = Duration.ofSeconds(10);
+    /** Each lookup should only find the recipe itself, plus a duplicate if there is one. */
+    private static final int MAX_CANDIDATES_PER_LOOKUP = 2;
+
+    @Test
+    void checksSyntheticRecipeMapWithinTimeBound() {
+        SyntheticRecipes recipes = new SyntheticRecipes(RECIPE_COUNT);
+
+        long[] candidateCounts = new long[2];
+        int[] maxCandidates = new int[1];
+        Duration elapsed = assertTimeout(TIME_BOUND, () -> {
+            long start = System.nanoTime();
+            RecipeIndex recipeIndex = recipes.buildIndex();
+
+            int flagged = 0;
+            for (int i = 0; i < recipeIndex.size(); i++) {
+                if (recipeIndex.unnecessaryCircuit(i)) {
+                    flagged++;
+                }
+                if (recipeIndex.collidingRecipes(i).length > 0) {
+                    flagged++;
+                }
+                if (recipeIndex.voidingRecipe(i)) {
+                    flagged++;
+                }
+
+                int withoutCircuits = recipeIndex.lookup(i, false).length;
+                int withCircuits = recipeIndex.lookup(i, true).length;
+                candidateCounts[0] += withoutCircuits;
+                candidateCounts[1] += withCircuits;
+                maxCandidates[0] = Math.max(maxCandidates[0], Math.max(withoutCircuits, withCircuits));
+            }
+            assertTrue(flagged > 0);
+
+            return Duration.ofNanos(System.nanoTime() - start);
+        });
+
+        System.out.printf(
+                "Checked %,d recipes in %,d ms (%,d + %,d candidates visited).%n",
+                RECIPE_COUNT,
+                elapsed.toMillis(),
+                candidateCounts[0],
+                candidateCounts[1]);
+        assertTrue(
+                maxCandidates[0] <= MAX_CANDIDATES_PER_LOOKUP,
+                "Lookups visited up to " + maxCandidates[0] + " candidates");
+    }
+
+    @Test
+    void matchesBruteForce() {
+        SyntheticRecipes recipes = new SyntheticRecipes(BRUTE_FORCE_RECIPE_COUNT);
+        RecipeIndex recipeIndex = recipes.buildIndex();
+
+        for (int i = 0; i < BRUTE_FORCE_RECIPE_COUNT; i++) {
+            assertEquals(recipes.unnecessaryCircuit(i), recipeIndex.unnecessaryCircuit(i), "Recipe " + i);
+            assertArrayEquals(recipes.collidingRecipes(i), recipeIndex.collidingRecipes(i), "Recipe " + i);
+            assertEquals(recipes.voidingRecipe(i), recipeIndex.voidingRecipe(i), "Recipe " + i);
+        }
+    }
+
+    /** Generates the synthetic recipe map, and holds brute force implementations of the checks. */
+    private static final class SyntheticRecipes {
+
+        private final List<String> circuits;
+        private final List<Map<String, Integer>> inputs;
+        private final List<Map<String, Integer>> outputs;
+
+        private SyntheticRecipes(int recipeCount) {
+            circuits = IntStream.range(0, CIRCUIT_COUNT).mapToObj(i -> "circuit:" + i).collect(Collectors.toList());
+            inputs = new ArrayList<>(recipeCount);
+            outputs = new ArrayList<>(recipeCount);
+
+            for (int i = 0; i < recipeCount; i++) {
+                int mold = i % MOLD_COUNT;
+                int fluid = i / MOLD_COUNT;
+
+                Map<String, Integer> recipeInputs = new HashMap<>();
+                if (i % DUPLICATE_EVERY == DUPLICATE_EVERY - 1) {
+                    recipeInputs.putAll(inputs.get(i - 1));
+                } else {
+                    // Molds are not consumed.
+                    recipeInputs.put("mold:" + mold, 0);
+                    recipeInputs.put("fluid:" + fluid, 144);
+                    if (i % CIRCUIT_EVERY == 0) {
+                        recipeInputs.put(circuits.get(i / CIRCUIT_EVERY % CIRCUIT_COUNT), 0);
+                    }
+                }
+                inputs.add(recipeInputs);
+
+                Map<String, Integer> recipeOutputs = new HashMap<>();
+                if (i % VOIDING_EVERY == 0) {
+                    recipeOutputs.put("fluid:" + fluid, 144);
+                } else {
+                    recipeOutputs.put("item:" + fluid + ":" + mold, 1);
+                }
+                outputs.add(recipeOutputs);
+            }
+        }
+
+        private RecipeIndex buildIndex() {
+            EncodedComponents.Dictionary<String> dictionary = new EncodedComponents.Dictionary<>(circuits);
+            EncodedComponents[] encodedInputs = new EncodedComponents[inputs.size()];
+            EncodedComponents[] encodedOutputs = new EncodedComponents[outputs.size()];
+            for (int i = 0; i < inputs.size(); i++) {
+                encodedInputs[i] = dictionary.encode(inputs.get(i));
+                encodedOutputs[i] = dictionary.encode(outputs.get(i));
+            }
+            return new RecipeIndex(encodedInputs, encodedOutputs, dictionary.size());
+        }
+
+        private boolean unnecessaryCircuit(int index) {
+            Map<String, Integer> recipeInputs = inputs.get(index);
+            if (recipeInputs.keySet().stream().noneMatch(circuits::contains)) {
+                return false;
+            }
+
+            List<String> nonCircuitInputs = recipeInputs.keySet().stream().filter(c -> !circuits.contains(c))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < inputs.size(); i++) {
+                if (i != index && inputs.get(i).keySet().containsAll(nonCircuitInputs)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int[] collidingRecipes(int index) {
+            return IntStream.range(0, inputs.size())
+                    .filter(i -> i != index && inputs.get(i).keySet().containsAll(inputs.get(index).keySet()))
+                    .toArray();
+        }
+
+        private boolean voidingRecipe(int index) {
+            return outputs.get(index).entrySet().stream()
+                    .allMatch(entry -> inputs.get(index).getOrDefault(entry.getKey(), 0) >= entry.getValue());
+        }
+    }
+}